@@ -0,0 +1,36 @@
+package com.example.ecomm.config;
+
+import com.example.ecomm.service.CatalogSnapshotService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+public class CatalogCacheConfig implements WebMvcConfigurer {
+
+    private final CatalogSnapshotService catalog;
+
+    // How long browsers may reuse a catalog response before revalidating with If-None-Match
+    @Value("${catalog.http.max-age-seconds:60}")
+    private long maxAgeSeconds;
+
+    public CatalogCacheConfig(CatalogSnapshotService catalog) {
+        this.catalog = catalog;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds))
+                .cachePublic()
+                .mustRevalidate();
+
+        registry.addInterceptor(new CatalogEtagInterceptor(catalog, cacheControl))
+                .addPathPatterns("/api/products", "/api/products/**")
+                // Suggestion ranking also depends on sales, which do not move the catalog version
+                .excludePathPatterns("/api/products/suggest");
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.ecomm.config;
+
+import com.example.ecomm.service.CatalogSnapshotService;
+import com.example.ecomm.service.FeaturedResponseCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Conditional GET for the public catalog endpoints.
+ *
+ * Within one running instance every /api/products response is a pure function of the URL and
+ * the catalog version. Versions restart at 1 on every boot and differ between instances, so the
+ * ETag combines the version with the instance's random epoch: after a restart or a hop to
+ * another instance an old ETag simply no longer matches, and the client gets a full response. A matching If-None-Match is answered
+ * with 304 here, before the controller runs — no snapshot lookup, no DTO mapping, no Jackson.
+ *
+ * The ETag is taken before the handler reads the catalog, so a concurrent refresh can only
+ * make the body newer than its ETag; the client then revalidates once more, never serves stale data.
+ *
+ * Only the unpaged featured lists (/top and /featured) are ever sent gzipped, so only they get
+ * a separate "-gz" ETag and Vary: Accept-Encoding; every other response has one representation.
+ */
+public class CatalogEtagInterceptor implements HandlerInterceptor {
+
+    private final CatalogSnapshotService catalog;
+    private final CacheControl cacheControl;
+
+    public CatalogEtagInterceptor(CatalogSnapshotService catalog, CacheControl cacheControl) {
+        this.catalog = catalog;
+        this.cacheControl = cacheControl;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return true;
+        }
+
+        // Gzip and identity bodies are different representations and need different strong ETags
+        boolean negotiated = servesPreEncodedFeatured(request);
+        boolean gzip = negotiated && FeaturedResponseCache.acceptsGzip(request);
+        String etag = "\"catalog-" + catalog.getEpoch() + "-v" + catalog.current().getVersion()
+                + (gzip ? "-gz" : "") + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        if (negotiated) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING); // keep the CORS filter's Vary values
+        }
+
+        // Sets the ETag header and, on an If-None-Match hit, the 304 status
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    // Mirrors ProductController: /top and /featured without paging params write FeaturedResponseCache bytes
+    private static boolean servesPreEncodedFeatured(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        boolean featured = path.equals("/api/products/top") || path.equals("/api/products/featured");
+        return featured && request.getParameter("limit") == null && request.getParameter("cursor") == null;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.ecomm.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Orders and order items used to get IDENTITY ids; they now come from pooled sequences.
+ * On a database that already holds rows, the freshly created sequences would start at 1 and
+ * collide with existing ids, so on startup each sequence is moved past MAX(id) if it is behind.
+ * This runs once every singleton (including the JPA schema setup) exists but before the web
+ * server starts, so no request can insert an order with a colliding id first.
+ *
+ * PostgreSQL only — fresh databases (and the H2 test profile) need no alignment.
+ */
+@Component
+public class OrderIdSequenceAligner implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIdSequenceAligner.class);
+
+    // Must match allocationSize on the @SequenceGenerator mappings
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderIdSequenceAligner(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+        align("items_order_seq", "items_order");
+        align("order_item_seq", "order_item");
+    }
+
+    private void align(String sequence, String table) {
+        // Only ever moves forward, and past any block another instance may already have reserved
+        Long moved = jdbcTemplate.queryForObject(
+                "SELECT CASE WHEN s.last_value <= t.max_id"
+                        + " THEN setval('" + sequence + "', GREATEST(t.max_id + 1, s.last_value + " + ALLOCATION_SIZE + "), false)"
+                        + " ELSE 0 END"
+                        + " FROM " + sequence + " s, (SELECT COALESCE(MAX(id), 0) AS max_id FROM " + table + ") t",
+                Long.class);
+        if (moved != null && moved > 0) {
+            log.info("Moved sequence {} to {} (past existing {} ids)", sequence, moved, table);
+        }
+    }
+}
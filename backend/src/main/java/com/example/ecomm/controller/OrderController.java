@@ -4,9 +4,19 @@ import com.example.ecomm.model.Order;
 import com.example.ecomm.model.User;
 import com.example.ecomm.repository.OrderRepository;
 import com.example.ecomm.repository.UserRepository;
+import com.example.ecomm.service.KeysetPager;
+import com.example.ecomm.service.OrderHistoryService;
+import com.example.ecomm.service.OrderStatusHub;
+import com.example.ecomm.service.PageCursor;
+import com.example.ecomm.service.UserOrderStatsService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 
@@ -17,23 +27,40 @@ public class OrderController {
 
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
+    private final OrderHistoryService orderHistoryService;
+    private final OrderStatusHub orderStatusHub;
+    private final UserOrderStatsService orderStats;
 
-    public OrderController(OrderRepository orderRepository, UserRepository userRepository) {
+    public OrderController(OrderRepository orderRepository, UserRepository userRepository,
+                           OrderHistoryService orderHistoryService, OrderStatusHub orderStatusHub,
+                           UserOrderStatsService orderStats) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
+        this.orderHistoryService = orderHistoryService;
+        this.orderStatusHub = orderStatusHub;
+        this.orderStats = orderStats;
     }
 
-    // Creates a new order
+    // Creates a new order; like checkout, it is counted in its owner's order stats
     @PostMapping
+    @Transactional
     public Order createOrder(@RequestBody Order order) {
         order.setStatus("PENDING");
         order.setCreatedAt(java.time.LocalDateTime.now());
-        return orderRepository.save(order);
+        Order saved = orderRepository.saveAndFlush(order);
+        // The user is not part of the JSON body, so legacy orders are usually anonymous and count for nobody
+        if (saved.getUser() != null) {
+            orderStats.refresh(saved.getUser().getId());
+        }
+        return saved;
     }
 
-    // Returns orders for the authenticated user only
+    // Returns orders for the authenticated user only, newest first, with compact item summaries.
+    // Pass ?limit= and/or ?cursor= to get an OrderPage instead of the full list
     @GetMapping("/me")
-    public java.util.List<Order> getMyOrders() {
+    public Object getMyOrders(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new RuntimeException("User not authenticated");
@@ -43,15 +70,39 @@ public class OrderController {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        return orderRepository.findByUser(user);
+        if (limit == null && (cursor == null || cursor.isEmpty())) {
+            return orderHistoryService.all(user);
+        }
+        return orderHistoryService.page(user, PageCursor.decode(cursor), KeysetPager.clampLimit(limit));
     }
 
-    // Returns a single order by ID
+    // Server-Sent Events: an "order-status" event {orderId, status} whenever one of the user's orders changes status
+    @GetMapping(path = "/me/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMyOrders() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new RuntimeException("User not authenticated");
+        }
+
+        User user = userRepository.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return orderStatusHub.subscribe(user.getId());
+    }
+
+    // Returns one of the authenticated user's orders by ID (async checkout clients poll this);
+    // other users' orders are reported as missing rather than forbidden, so ids reveal nothing
     @GetMapping("/{id}")
     public Order getOrderById(@PathVariable Long id) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new RuntimeException("User not authenticated");
+        }
+
+        User user = userRepository.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Find order by ID or throw error if not found
-        return orderRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+        return orderRepository.findByIdAndUser(id, user)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found with id: " + id));
     }
 }
@@ -0,0 +1,67 @@
+package com.example.ecomm.controller;
+
+import com.example.ecomm.service.OrderExportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/admin/orders")
+@CrossOrigin(origins = "*")
+public class OrderExportController {
+
+    private final OrderExportService orderExportService;
+
+    // There are no roles yet, so admins are listed by username (admin.usernames, comma-separated; empty = nobody)
+    private final Set<String> adminUsernames;
+
+    public OrderExportController(OrderExportService orderExportService,
+                                 @Value("${admin.usernames:}") String adminUsernames) {
+        this.orderExportService = orderExportService;
+        this.adminUsernames = Arrays.stream(adminUsernames.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    // Streams all orders (optionally createdAt in [from, to)) as NDJSON or CSV without buffering them
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = OrderExportService.NDJSON) String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !adminUsernames.contains(authentication.getName())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Admin only");
+        }
+
+        MediaType type;
+        if (OrderExportService.NDJSON.equals(format)) {
+            type = MediaType.APPLICATION_NDJSON;
+        } else if (OrderExportService.CSV.equals(format)) {
+            type = new MediaType("text", "csv", StandardCharsets.UTF_8);
+        } else {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be 'ndjson' or 'csv'");
+        }
+
+        StreamingResponseBody body = out -> orderExportService.export(format, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(type)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + format + "\"")
+                .body(body);
+    }
+}
@@ -6,7 +6,12 @@ import com.example.ecomm.model.Order;
 import com.example.ecomm.model.Payment;
 import com.example.ecomm.repository.OrderRepository;
 import com.example.ecomm.repository.PaymentRepository;
+import com.example.ecomm.service.OrderStatusHub;
+import com.example.ecomm.service.OutboxService;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 
@@ -16,21 +21,28 @@ public class PaymentController {
 
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
+    private final OutboxService outbox;
+    private final OrderStatusHub statusHub;
 
-    public PaymentController(PaymentRepository paymentRepository, OrderRepository orderRepository) {
+    public PaymentController(PaymentRepository paymentRepository, OrderRepository orderRepository,
+            OutboxService outbox, OrderStatusHub statusHub) {
         this.paymentRepository = paymentRepository;
         this.orderRepository = orderRepository;
+        this.outbox = outbox;
+        this.statusHub = statusHub;
     }
 
+    // Payment, order status and the outbox event commit together
     @PostMapping
+    @Transactional
     public PaymentResponse processPayment(@RequestBody PaymentRequest request) {
-        // Validate order exists
-        Order order = orderRepository.findById(request.getOrderId())
+        // Validate order exists; the row lock keeps CheckoutPipeline from paying or failing it meanwhile
+        Order order = orderRepository.lockById(request.getOrderId())
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + request.getOrderId()));
 
-        // Check if already paid
-        if ("PAID".equals(order.getStatus())) {
-            throw new RuntimeException("Order already paid");
+        // Only a PENDING order can be paid: PAID is already paid, FAILED has given its stock back
+        if (!"PENDING".equals(order.getStatus())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Order is " + order.getStatus() + ", not awaiting payment");
         }
 
         // Extract last 4 digits (never store full card number)
@@ -49,9 +61,13 @@ public class PaymentController {
 
         Payment savedPayment = paymentRepository.save(payment);
 
-        // Update order status
+        // Update order status; PENDING and PAID orders count alike in user_order_stats, so it needs no update
         order.setStatus("PAID");
         orderRepository.save(order);
+        statusHub.publishAfterCommit(order);
+
+        outbox.record(OutboxService.PAYMENT, savedPayment.getId(), OutboxService.PAYMENT_RECORDED,
+                OutboxService.paymentPayload(savedPayment));
 
         return new PaymentResponse(
                 savedPayment.getId(),
@@ -1,11 +1,40 @@
 package com.example.ecomm.controller;
 
+import com.example.ecomm.dto.ProductBatchResponse;
 import com.example.ecomm.dto.ProductDTO;
+import com.example.ecomm.dto.ProductPage;
+import com.example.ecomm.dto.ProductSummaryDTO;
 import com.example.ecomm.model.Product;
 import com.example.ecomm.repository.ProductRepository;
+import com.example.ecomm.service.CatalogSnapshot;
+import com.example.ecomm.service.CatalogSnapshotService;
+import com.example.ecomm.service.FeaturedResponseCache;
+import com.example.ecomm.service.KeysetPager;
+import com.example.ecomm.service.PageCursor;
+import com.example.ecomm.service.PriceIndex;
+import com.example.ecomm.service.ProductFacetIndex;
+import com.example.ecomm.service.ProductSearchIndex;
+import com.example.ecomm.service.ProductSuggestService;
+import com.example.ecomm.service.SuggestTrie;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 
 @RestController
@@ -15,95 +44,275 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*") // Allow frontend to access this API
 public class ProductController {
 
+    // Listing params that are never treated as attribute filters
+    private static final Set<String> RESERVED_PARAMS = Set.of(
+            "mainCategory", "subCategory", "q", "limit", "cursor", "facets", "view",
+            "sort", "minPrice", "maxPrice");
+
+    private static final Set<String> SORT_MODES = Set.of("price_asc", "price_desc", "newest");
+
+    // Upper bound for /batch, keeps one request from pulling the whole catalog
+    private static final int MAX_BATCH_IDS = 100;
+
     private final ProductRepository repository;
+    private final CatalogSnapshotService catalog;
+    private final FeaturedResponseCache featuredCache;
+    private final ProductSuggestService suggestService;
 
-    public ProductController(ProductRepository repository) {
+    public ProductController(ProductRepository repository, CatalogSnapshotService catalog,
+                             FeaturedResponseCache featuredCache, ProductSuggestService suggestService) {
         this.repository = repository;
+        this.catalog = catalog;
+        this.featuredCache = featuredCache;
+        this.suggestService = suggestService;
     }
 
     // No random: list all featured products, newest first
+    // Pass ?limit= and/or ?cursor= to get a ProductPage instead of the full list
     @GetMapping("/top")
-    public List<ProductDTO> getTopFeatured() {
-
-        List<Product> products = repository.findByFeaturedTrueOrderByIdDesc();
-
-        // Convert Product entities to ProductDTO
-        return products.stream()
-                .map(p -> new ProductDTO(
-                        p.getId(),
-                        p.getName(),
-                        p.getDescription(),
-                        p.getPrice(),
-                        p.getImageUrl(),
-                        p.getDetails(),
-                        p.getAttributes()))
-                .collect(Collectors.toList());
+    public ResponseEntity<?> getTopFeatured(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "full") String view,
+            HttpServletRequest request) {
+        boolean summary = isSummary(view);
+        if (!isPaged(limit, cursor)) {
+            return featuredBytes(request, summary);
+        }
+        return respond(catalog.current().featured(), p -> p.getId(), true, limit, cursor, summary);
     }
 
     // Get only featured products
     @GetMapping("/featured")
-    public List<ProductDTO> getFeatured() {
-        List<Product> products = repository.findByFeaturedTrueOrderByIdDesc();
-
-        return products.stream()
-                .map(p -> new ProductDTO(
-                        p.getId(),
-                        p.getName(),
-                        p.getDescription(),
-                        p.getPrice(),
-                        p.getImageUrl(),
-                        p.getDetails(),
-                        p.getAttributes()))
-                .collect(Collectors.toList());
+    public ResponseEntity<?> getFeatured(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "full") String view,
+            HttpServletRequest request) {
+        boolean summary = isSummary(view);
+        if (!isPaged(limit, cursor)) {
+            return featuredBytes(request, summary);
+        }
+        return respond(catalog.current().featured(), p -> p.getId(), true, limit, cursor, summary);
     }
 
     // Returns products with optional filters
+    // Any other query param naming a product attribute filters on it, e.g. ?skin_type=oily&palette_type=Nude,Midi
     @GetMapping
-    public List<ProductDTO> getAll(
+    public ResponseEntity<?> getAll(
             @RequestParam(required = false) String mainCategory,
             @RequestParam(required = false) String subCategory,
-            @RequestParam(required = false) String q) {
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean facets,
+            @RequestParam(defaultValue = "full") String view,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam MultiValueMap<String, String> params) {
 
+        boolean summary = isSummary(view);
+        if (sort != null && !SORT_MODES.contains(sort)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "sort must be one of " + SORT_MODES);
+        }
+        CatalogSnapshot snapshot = catalog.current();
         List<Product> products;
+        ToDoubleFunction<Product> sortKey;
+        boolean descending;
 
-        // Filters
+        // Filters (search and category lookups are served from the in-memory snapshot indexes)
         if (q != null && !q.isEmpty()) {
-            products = repository.findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(q, q);
-        } else if (mainCategory != null && subCategory != null) {
-            products = repository.findByMainCategoryAndSubCategory(mainCategory, subCategory);
-        } else if (mainCategory != null) {
-            products = repository.findByMainCategory(mainCategory);
-        } else if (subCategory != null) {
-            products = repository.findBySubCategory(subCategory);
+            // Search results are ordered by relevance (score desc, id asc); the cursor seeks on the score
+            List<ProductSearchIndex.Hit> hits = snapshot.searchIndex().search(q);
+            Map<Long, Float> scores = new HashMap<>();
+            hits.forEach(h -> scores.put(h.getProduct().getId(), h.getScore()));
+            products = hits.stream().map(ProductSearchIndex.Hit::getProduct).toList();
+            sortKey = p -> scores.get(p.getId());
+            descending = true;
         } else {
-            products = repository.findAll();
+            if (mainCategory != null && subCategory != null) {
+                products = snapshot.findByMainCategoryAndSubCategory(mainCategory, subCategory);
+            } else if (mainCategory != null) {
+                products = snapshot.findByMainCategory(mainCategory);
+            } else if (subCategory != null) {
+                products = snapshot.findBySubCategory(subCategory);
+            } else {
+                products = snapshot.all();
+            }
+            // Snapshot lists are id-ascending
+            sortKey = p -> p.getId();
+            descending = false;
         }
 
-        // No filters → return all products
-        return products.stream()
-                .map(p -> new ProductDTO(
-                        p.getId(),
-                        p.getName(),
-                        p.getDescription(),
-                        p.getPrice(),
-                        p.getImageUrl(),
-                        p.getDetails(),
-                        p.getAttributes()))
-                .collect(Collectors.toList());
+        // Price range: two binary searches over the sorted price index
+        PriceIndex priceIndex = snapshot.priceIndex();
+        if (minPrice != null || maxPrice != null) {
+            products = snapshot.retain(products, priceIndex.range(minPrice, maxPrice));
+        }
+
+        // Attribute filters and facet counts are bitmap operations over the snapshot
+        ProductFacetIndex facetIndex = snapshot.facetIndex();
+        Map<String, List<String>> attributeFilters = attributeFilters(params, facetIndex);
+        Map<String, Map<String, Integer>> facetCounts = null;
+        if (!attributeFilters.isEmpty() || facets) {
+            BitSet base = snapshot.toBitSet(products);
+            if (facets) {
+                facetCounts = facetIndex.counts(base, attributeFilters);
+            }
+            if (!attributeFilters.isEmpty()) {
+                BitSet matched = facetIndex.matching(attributeFilters);
+                matched.and(base);
+                products = snapshot.retain(products, matched);
+            }
+        }
+
+        // Explicit sort overrides the default order (relevance for q, id otherwise)
+        if ("price_asc".equals(sort) || "price_desc".equals(sort)) {
+            descending = "price_desc".equals(sort);
+            products = snapshot.atPositions(priceIndex.ordered(snapshot.toBitSet(products), descending));
+            sortKey = PriceIndex::priceOf;
+        } else if ("newest".equals(sort)) {
+            // Product has no createdAt; ids are assigned in insertion order, so "newest" means highest id
+            products = new ArrayList<>(products);
+            products.sort(Comparator.comparing(Product::getId).reversed());
+            sortKey = p -> p.getId();
+            descending = true;
+        }
+
+        if (!isPaged(limit, cursor) && !facets) {
+            return ResponseEntity.ok(render(products, summary));
+        }
+        KeysetPager.Slice<Product> slice = KeysetPager.page(
+                products, sortKey, descending, Product::getId,
+                PageCursor.decode(cursor), KeysetPager.clampLimit(limit));
+        return ResponseEntity.ok(new ProductPage<>(render(slice.getItems(), summary), slice.getNextCursor(), facetCounts));
+    }
+
+    // Search-as-you-type: /api/products/suggest?prefix=hud → product names and brands, best first
+    @GetMapping("/suggest")
+    public List<SuggestTrie.Suggestion> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        return suggestService.suggest(prefix, limit);
+    }
+
+    // Resolve many products in one call (cart hydration): /api/products/batch?ids=1,2,3
+    // Unknown ids are reported in "missing" instead of failing the whole request
+    @GetMapping("/batch")
+    public ProductBatchResponse<Object> getBatch(
+            @RequestParam List<Long> ids,
+            @RequestParam(defaultValue = "full") String view) {
+        boolean summary = isSummary(view);
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_BATCH_IDS + " ids per request");
+        }
+
+        CatalogSnapshot snapshot = catalog.current();
+        Map<Long, Product> found = new LinkedHashMap<>();
+        List<Long> notInSnapshot = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Product p = snapshot.findById(id);
+            if (p != null) {
+                found.put(id, p);
+            } else {
+                notInSnapshot.add(id);
+            }
+        }
+
+        // Products newer than the snapshot: one findAllById round trip for all of them
+        if (!notInSnapshot.isEmpty()) {
+            repository.findAllById(notInSnapshot).forEach(p -> found.put(p.getId(), p));
+        }
+
+        List<Product> products = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Product p = found.get(id);
+            if (p != null) {
+                products.add(p);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new ProductBatchResponse<>(render(products, summary), missing);
     }
 
     // Convert Product entities to ProductDTO
     @GetMapping("/{id}")
     public ProductDTO getOne(@PathVariable Long id) {
-        Product p = repository.findById(id).orElseThrow();
-        return new ProductDTO(
-                p.getId(),
-                p.getName(),
-                p.getDescription(),
-                p.getPrice(),
-                p.getImageUrl(),
-                p.getDetails(),
-                p.getAttributes());
+        Product p = catalog.current().findById(id);
+        if (p == null) {
+            // Not in the snapshot yet (e.g. inserted since the last refresh) → fall back to the database
+            p = repository.findById(id).orElseThrow();
+        }
+        return ProductDTO.from(p);
+    }
+
+    // Full featured list: pre-encoded bytes written as-is, gzipped when the client accepts it
+    private ResponseEntity<byte[]> featuredBytes(HttpServletRequest request, boolean summary) {
+        FeaturedResponseCache.Encoded encoded = featuredCache.current();
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        if (FeaturedResponseCache.acceptsGzip(request)) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(encoded.getGzip(summary));
+        }
+        return builder.body(encoded.getJson(summary));
+    }
+
+    // ?view=summary → ProductSummaryDTO (no description/details/attributes); ?view=full (default) → ProductDTO
+    private static boolean isSummary(String view) {
+        if ("summary".equalsIgnoreCase(view)) {
+            return true;
+        }
+        if ("full".equalsIgnoreCase(view)) {
+            return false;
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "view must be 'summary' or 'full'");
+    }
+
+    // Query params that are not attribute names → attribute filters; "a,b" and repeated params both mean a OR b
+    private static Map<String, List<String>> attributeFilters(MultiValueMap<String, String> params,
+                                                              ProductFacetIndex facetIndex) {
+        Map<String, List<String>> filters = new LinkedHashMap<>();
+        params.forEach((key, values) -> {
+            if (RESERVED_PARAMS.contains(key) || !facetIndex.hasAttribute(key)) {
+                return;
+            }
+            List<String> accepted = new ArrayList<>();
+            for (String value : values) {
+                for (String v : value.split(",")) {
+                    if (!v.isBlank()) {
+                        accepted.add(v.trim());
+                    }
+                }
+            }
+            if (!accepted.isEmpty()) {
+                filters.put(key, accepted);
+            }
+        });
+        return filters;
+    }
+
+    // Without paging params the whole list is returned, exactly as before pagination existed
+    private static boolean isPaged(Integer limit, String cursor) {
+        return limit != null || (cursor != null && !cursor.isEmpty());
+    }
+
+    private static ResponseEntity<?> respond(List<Product> ordered, ToDoubleFunction<Product> sortKey,
+                                             boolean descending, Integer limit, String cursor, boolean summary) {
+        if (!isPaged(limit, cursor)) {
+            return ResponseEntity.ok(render(ordered, summary));
+        }
+        KeysetPager.Slice<Product> slice = KeysetPager.page(
+                ordered, sortKey, descending, Product::getId,
+                PageCursor.decode(cursor), KeysetPager.clampLimit(limit));
+        return ResponseEntity.ok(new ProductPage<>(render(slice.getItems(), summary), slice.getNextCursor()));
+    }
+
+    private static List<Object> render(List<Product> products, boolean summary) {
+        return products.stream()
+                .map(p -> summary ? ProductSummaryDTO.from(p) : ProductDTO.from(p))
+                .collect(Collectors.toList());
     }
 
 }
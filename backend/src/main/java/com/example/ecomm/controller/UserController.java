@@ -2,6 +2,7 @@ package com.example.ecomm.controller;
 
 import com.example.ecomm.model.User;
 import com.example.ecomm.repository.UserRepository;
+import com.example.ecomm.service.UserOrderStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -19,6 +20,9 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserOrderStatsService userOrderStatsService;
+
     // Get current user profile
     @GetMapping("/me")
     public ResponseEntity<?> getCurrentUser() {
@@ -41,6 +45,21 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    // Order count, lifetime spend and last order date of the current user (O(1), no order history scan)
+    @GetMapping("/me/order-stats")
+    public ResponseEntity<?> getOrderStats() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+
+        String username = authentication.getName();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return ResponseEntity.ok(userOrderStatsService.get(user.getId()));
+    }
+
     // Update current user profile
     @PutMapping("/me")
     public ResponseEntity<?> updateProfile(@RequestBody ProfileUpdateRequest request) {
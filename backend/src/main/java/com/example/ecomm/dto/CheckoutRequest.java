@@ -0,0 +1,114 @@
+package com.example.ecomm.dto;
+
+import java.util.List;
+
+// DTO for checkout completion request
+public class CheckoutRequest {
+    // User info
+    private String customerName;
+    private String phoneNumber;
+
+    // Address info
+    private String addressLine;
+    private String city;
+    private String postalCode;
+
+    // Payment info
+    private String cardholderName;
+    private String cardNumber;
+    private String expiryDate;
+    private String cvv;
+
+    // Order info
+    private Double amount;
+    private List<CheckoutItemDTO> items;
+
+    // Getters and setters
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public void setCustomerName(String customerName) {
+        this.customerName = customerName;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public void setPhoneNumber(String phoneNumber) {
+        this.phoneNumber = phoneNumber;
+    }
+
+    public String getAddressLine() {
+        return addressLine;
+    }
+
+    public void setAddressLine(String addressLine) {
+        this.addressLine = addressLine;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public String getPostalCode() {
+        return postalCode;
+    }
+
+    public void setPostalCode(String postalCode) {
+        this.postalCode = postalCode;
+    }
+
+    public String getCardholderName() {
+        return cardholderName;
+    }
+
+    public void setCardholderName(String cardholderName) {
+        this.cardholderName = cardholderName;
+    }
+
+    public String getCardNumber() {
+        return cardNumber;
+    }
+
+    public void setCardNumber(String cardNumber) {
+        this.cardNumber = cardNumber;
+    }
+
+    public String getExpiryDate() {
+        return expiryDate;
+    }
+
+    public void setExpiryDate(String expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+
+    public String getCvv() {
+        return cvv;
+    }
+
+    public void setCvv(String cvv) {
+        this.cvv = cvv;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+
+    public List<CheckoutItemDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<CheckoutItemDTO> items) {
+        this.items = items;
+    }
+}
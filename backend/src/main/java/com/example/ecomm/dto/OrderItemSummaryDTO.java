@@ -0,0 +1,50 @@
+package com.example.ecomm.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+// Compact order line for order history: the product is referenced by id only, name and image are the order-time snapshot
+public class OrderItemSummaryDTO {
+    @JsonIgnore
+    private Long orderId;
+
+    private Long id;
+    private Long productId;
+    private String productName;
+    private String productImageUrl;
+    private Integer quantity;
+    private Double price;
+
+    public OrderItemSummaryDTO() {}
+
+    // Used as a JPQL constructor expression, see OrderItemRepository.findSummariesByOrderIds
+    public OrderItemSummaryDTO(Long orderId, Long id, Long productId, String productName,
+                               String productImageUrl, Integer quantity, Double price) {
+        this.orderId = orderId;
+        this.id = id;
+        this.productId = productId;
+        this.productName = productName;
+        this.productImageUrl = productImageUrl;
+        this.quantity = quantity;
+        this.price = price;
+    }
+
+    public Long getOrderId() { return orderId; }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public String getProductName() { return productName; }
+    public void setProductName(String productName) { this.productName = productName; }
+
+    public String getProductImageUrl() { return productImageUrl; }
+    public void setProductImageUrl(String productImageUrl) { this.productImageUrl = productImageUrl; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+}
@@ -0,0 +1,22 @@
+package com.example.ecomm.dto;
+
+import java.util.List;
+
+// One page of the order history, newest first; pass nextCursor back as ?cursor= to get the next page
+public class OrderPage {
+    private List<OrderSummaryDTO> items;
+    private String nextCursor;
+
+    public OrderPage() {}
+
+    public OrderPage(List<OrderSummaryDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<OrderSummaryDTO> getItems() { return items; }
+    public void setItems(List<OrderSummaryDTO> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,28 @@
+package com.example.ecomm.dto;
+
+import com.example.ecomm.model.UserOrderStats;
+
+import java.time.LocalDateTime;
+
+// Order aggregates for profile pages; immutable so cached instances can be shared
+public class OrderStatsDTO {
+    private final long orderCount;
+    private final double totalSpent;
+    private final LocalDateTime lastOrderAt;
+
+    public OrderStatsDTO(long orderCount, double totalSpent, LocalDateTime lastOrderAt) {
+        this.orderCount = orderCount;
+        this.totalSpent = totalSpent;
+        this.lastOrderAt = lastOrderAt;
+    }
+
+    public static OrderStatsDTO from(UserOrderStats stats) {
+        return new OrderStatsDTO(stats.getOrderCount(), stats.getTotalSpent(), stats.getLastOrderAt());
+    }
+
+    public long getOrderCount() { return orderCount; }
+
+    public double getTotalSpent() { return totalSpent; }
+
+    public LocalDateTime getLastOrderAt() { return lastOrderAt; }
+}
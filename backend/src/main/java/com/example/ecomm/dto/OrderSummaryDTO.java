@@ -0,0 +1,66 @@
+package com.example.ecomm.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Order as shown in the order history; same field names as the Order entity so existing clients keep working
+public class OrderSummaryDTO {
+    private Long id;
+    private LocalDateTime createdAt;
+    private Double amount;
+    private String status;
+    private String customerName;
+    private String phoneNumber;
+    private String addressLine;
+    private String city;
+    private String postalCode;
+    private List<OrderItemSummaryDTO> orderItems = new ArrayList<>();
+
+    public OrderSummaryDTO() {}
+
+    // Used as a JPQL constructor expression, see OrderRepository.findHistory
+    public OrderSummaryDTO(Long id, LocalDateTime createdAt, Double amount, String status,
+                           String customerName, String phoneNumber, String addressLine,
+                           String city, String postalCode) {
+        this.id = id;
+        this.createdAt = createdAt;
+        this.amount = amount;
+        this.status = status;
+        this.customerName = customerName;
+        this.phoneNumber = phoneNumber;
+        this.addressLine = addressLine;
+        this.city = city;
+        this.postalCode = postalCode;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public Double getAmount() { return amount; }
+    public void setAmount(Double amount) { this.amount = amount; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getCustomerName() { return customerName; }
+    public void setCustomerName(String customerName) { this.customerName = customerName; }
+
+    public String getPhoneNumber() { return phoneNumber; }
+    public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
+
+    public String getAddressLine() { return addressLine; }
+    public void setAddressLine(String addressLine) { this.addressLine = addressLine; }
+
+    public String getCity() { return city; }
+    public void setCity(String city) { this.city = city; }
+
+    public String getPostalCode() { return postalCode; }
+    public void setPostalCode(String postalCode) { this.postalCode = postalCode; }
+
+    public List<OrderItemSummaryDTO> getOrderItems() { return orderItems; }
+    public void setOrderItems(List<OrderItemSummaryDTO> orderItems) { this.orderItems = orderItems; }
+}
@@ -0,0 +1,22 @@
+package com.example.ecomm.dto;
+
+import java.util.List;
+
+// Result of a batch lookup: found products in request order, plus ids that do not exist
+public class ProductBatchResponse<T> {
+    private List<T> products;
+    private List<Long> missing;
+
+    public ProductBatchResponse() {}
+
+    public ProductBatchResponse(List<T> products, List<Long> missing) {
+        this.products = products;
+        this.missing = missing;
+    }
+
+    public List<T> getProducts() { return products; }
+    public void setProducts(List<T> products) { this.products = products; }
+
+    public List<Long> getMissing() { return missing; }
+    public void setMissing(List<Long> missing) { this.missing = missing; }
+}
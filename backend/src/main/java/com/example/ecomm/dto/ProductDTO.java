@@ -1,5 +1,7 @@
 package com.example.ecomm.dto;
 
+import com.example.ecomm.model.Product;
+
 import java.util.Map;
 
 public class ProductDTO {
@@ -25,6 +27,18 @@ public class ProductDTO {
         this.attributes = attributes;
     }
 
+    // Convert a Product entity to its API representation
+    public static ProductDTO from(Product p) {
+        return new ProductDTO(
+                p.getId(),
+                p.getName(),
+                p.getDescription(),
+                p.getPrice(),
+                p.getImageUrl(),
+                p.getDetails(),
+                p.getAttributes());
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
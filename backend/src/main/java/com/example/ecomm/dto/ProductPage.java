@@ -0,0 +1,38 @@
+package com.example.ecomm.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Map;
+
+// One page of a product listing (ProductDTO or ProductSummaryDTO items); pass nextCursor back as ?cursor= to get the next page
+public class ProductPage<T> {
+    private List<T> items;
+    private String nextCursor;
+
+    // Attribute facet counts (attribute → value → count); only present when requested with ?facets=true
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Map<String, Integer>> facets;
+
+    public ProductPage() {}
+
+    public ProductPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public ProductPage(List<T> items, String nextCursor, Map<String, Map<String, Integer>> facets) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.facets = facets;
+    }
+
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public Map<String, Map<String, Integer>> getFacets() { return facets; }
+    public void setFacets(Map<String, Map<String, Integer>> facets) { this.facets = facets; }
+}
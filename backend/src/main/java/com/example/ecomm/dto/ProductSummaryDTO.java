@@ -0,0 +1,53 @@
+package com.example.ecomm.dto;
+
+import com.example.ecomm.model.Product;
+
+// Compact product card for listings and carousels (?view=summary): no description, details or attributes
+public class ProductSummaryDTO {
+    private Long id;
+    private String name;
+    private Double price;
+    private String imageUrl;
+    private String mainCategory;
+    private String subCategory;
+
+    public ProductSummaryDTO() {}
+
+    public ProductSummaryDTO(Long id, String name, Double price, String imageUrl,
+                             String mainCategory, String subCategory) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.imageUrl = imageUrl;
+        this.mainCategory = mainCategory;
+        this.subCategory = subCategory;
+    }
+
+    public static ProductSummaryDTO from(Product p) {
+        return new ProductSummaryDTO(
+                p.getId(),
+                p.getName(),
+                p.getPrice(),
+                p.getImageUrl(),
+                p.getMainCategory(),
+                p.getSubCategory());
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+
+    public String getMainCategory() { return mainCategory; }
+    public void setMainCategory(String mainCategory) { this.mainCategory = mainCategory; }
+
+    public String getSubCategory() { return subCategory; }
+    public void setSubCategory(String subCategory) { this.subCategory = subCategory; }
+}
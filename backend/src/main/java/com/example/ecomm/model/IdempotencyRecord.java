@@ -0,0 +1,95 @@
+package com.example.ecomm.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stored outcome of a checkout sent with an Idempotency-Key header.
+ * Keys are scoped per user: the primary key is "userId:key".
+ *
+ * The id is assigned, so the record tells Spring Data whether it is new: a new record is
+ * always persisted (a plain INSERT), never merged, and a concurrent insert of the same key
+ * fails on the primary key instead of silently overwriting the stored response.
+ */
+@Entity
+@Table(name = "checkout_idempotency_keys")
+public class IdempotencyRecord implements Persistable<String> {
+    @Id
+    @Column(length = 300)
+    private String id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 255)
+    private String idempotencyKey;
+
+    // SHA-256 (hex) of the request payload, to reject a reused key with a different body
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    // JSON body returned by the first request
+    @Column(nullable = false, columnDefinition = "text")
+    private String responseBody;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    public IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(Long userId, String idempotencyKey, String requestHash, String responseBody) {
+        this.id = idOf(userId, idempotencyKey);
+        this.userId = userId;
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+        this.responseBody = responseBody;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public static String idOf(Long userId, String idempotencyKey) {
+        return userId + ":" + idempotencyKey;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    // Getters
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
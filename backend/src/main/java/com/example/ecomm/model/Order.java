@@ -7,12 +7,20 @@ import java.util.List;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "items_order") // 'order' is a reserved keyword in SQL
+// 'order' is a reserved keyword in SQL. (user_id, created_at) serves order history and demo cleanup;
+// on PostgreSQL the table can be range-partitioned by created_at (database/partitioning/)
+@Table(name = "items_order", indexes = {
+        @Index(name = "idx_items_order_user_created", columnList = "user_id, createdAt"),
+        // CheckoutPipeline's sweep for stale PENDING orders
+        @Index(name = "idx_items_order_status_created", columnList = "status, createdAt")
+})
 public class Order {
     @Id
 
-    // // Auto-increment ID
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence ids: Hibernate reserves 50 ids per round trip and can batch inserts,
+    // which IDENTITY columns prevent (see OrderIdSequenceAligner for existing databases)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_order_seq")
+    @SequenceGenerator(name = "items_order_seq", sequenceName = "items_order_seq", allocationSize = 50)
     private Long id;
 
     // New fields for user-scoped orders
@@ -182,4 +190,12 @@ public class Order {
         orderItems.add(item);
         item.setOrder(this);
     }
+
+    // created_at is the partition key, so it can never be null
+    @PrePersist
+    void defaultCreatedAt() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
 }
@@ -3,12 +3,15 @@ package com.example.ecomm.model;
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import java.time.LocalDateTime;
+
 @Entity
-@Table(name = "order_item")
+@Table(name = "order_item", indexes = @Index(name = "idx_order_item_order", columnList = "order_id"))
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 50)
     private Long id;
 
     // Link to the order this item belongs to
@@ -32,6 +35,11 @@ public class OrderItem {
     // Price at time of purchase (per unit)
     private Double price;
 
+    // Copy of the order's createdAt: the partition key, so an order and its lines share a monthly partition.
+    // Always set on insert; left nullable in the mapping so ddl-auto can add it to tables that have rows
+    @JsonIgnore
+    private LocalDateTime createdAt;
+
     // Constructors
     public OrderItem() {
     }
@@ -48,6 +56,13 @@ public class OrderItem {
         }
     }
 
+    @PrePersist
+    void copyCreatedAt() {
+        if (createdAt == null) {
+            createdAt = order != null && order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
+        }
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -109,4 +124,12 @@ public class OrderItem {
     public Double getLineTotal() {
         return quantity != null && price != null ? quantity * price : 0.0;
     }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.ecomm.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
@@ -34,6 +35,10 @@ public class Product {
     @Column(columnDefinition = "jsonb")
     private Map<String, Object> attributes;
 
+    // Units on hand; null = not stock-managed (unlimited). Checkout decrements it through StockLedger only.
+    @JsonIgnore
+    private Integer stock;
+
 
     // Constructor used to create a new product
     public Product() {}
@@ -51,6 +56,9 @@ public class Product {
         this.subCategory = subCategory;
     }
 
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+
     public Map<String, Object> getAttributes() { return attributes; }
     public void setAttributes(Map<String, Object> attributes) { this.attributes = attributes; }
 
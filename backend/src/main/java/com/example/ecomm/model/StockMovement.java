@@ -0,0 +1,47 @@
+package com.example.ecomm.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Change to products.stock recorded in the same transaction as the sale (or restock) that
+ * caused it. StockLedger applies and deletes these rows in batches, so a crash before the
+ * next flush loses nothing. Written and read with plain JDBC; mapped for the schema only.
+ */
+@Entity
+@Table(name = "stock_movements")
+public class StockMovement {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    // Units added to stock: negative for a sale, positive for a restock
+    @Column(nullable = false)
+    private int delta;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public StockMovement() {
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.ecomm.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Read model: order count, lifetime spend and last order date of one user.
+ * Kept in step with items_order by UserOrderStatsService, in the same transactions that
+ * place, fail or delete orders. FAILED orders are not counted.
+ */
+@Entity
+@Table(name = "user_order_stats")
+public class UserOrderStats {
+    @Id
+    private Long userId;
+
+    @Column(nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false)
+    private double totalSpent;
+
+    private LocalDateTime lastOrderAt;
+
+    public UserOrderStats() {
+    }
+
+    public UserOrderStats(Long userId) {
+        this.userId = userId;
+    }
+
+    // Getters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public double getTotalSpent() {
+        return totalSpent;
+    }
+
+    public LocalDateTime getLastOrderAt() {
+        return lastOrderAt;
+    }
+
+    // Setters
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public void setTotalSpent(double totalSpent) {
+        this.totalSpent = totalSpent;
+    }
+
+    public void setLastOrderAt(LocalDateTime lastOrderAt) {
+        this.lastOrderAt = lastOrderAt;
+    }
+}
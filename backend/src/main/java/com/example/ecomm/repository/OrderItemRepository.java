@@ -1,10 +1,35 @@
 package com.example.ecomm.repository;
 
+import com.example.ecomm.dto.OrderItemSummaryDTO;
 import com.example.ecomm.model.OrderItem;
+import com.example.ecomm.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     // Basic CRUD operations inherited from JpaRepository
+
+    // Units sold per product: rows of [productId (Long), quantity (Long)]
+    @Query("select i.product.id, sum(i.quantity) from OrderItem i where i.product is not null group by i.product.id")
+    List<Object[]> sumQuantityByProduct();
+
+    // Line summaries for a page of orders in one query; i.product.id reads the foreign key, products are not joined
+    @Query("select new com.example.ecomm.dto.OrderItemSummaryDTO(i.order.id, i.id, i.product.id, i.productName, "
+            + "i.productImageUrl, i.quantity, i.price) from OrderItem i where i.order.id in :orderIds order by i.id")
+    List<OrderItemSummaryDTO> findSummariesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // Demo cleanup only: lines of the orders deleteByUserAndCreatedAtBeforeAndIdBetween is about to remove
+    @Modifying
+    @Query("delete from OrderItem i where i.order.id in (select o.id from Order o where o.user = :user "
+            + "and o.createdAt < :cutoff and o.id between :fromId and :toId)")
+    int deleteForOrdersOfUserCreatedBefore(@Param("user") User user, @Param("cutoff") LocalDateTime cutoff,
+                                           @Param("fromId") Long fromId, @Param("toId") Long toId);
 }
@@ -1,17 +1,72 @@
 package com.example.ecomm.repository;
 
+import com.example.ecomm.dto.OrderSummaryDTO;
 import com.example.ecomm.model.Order;
 import com.example.ecomm.model.User;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUser(User user);
 
+    Optional<Order> findByIdAndUser(Long id, User user);
+
+    // SELECT ... FOR UPDATE; status transitions re-check the status under this lock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> lockById(@Param("id") Long id);
+
+    // Same for a batch, locked in id order so concurrent batches cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.id in :ids order by o.id")
+    List<Order> lockAllById(@Param("ids") Collection<Long> ids);
+
+    // Stale PENDING orders for CheckoutPipeline's sweep (idx_items_order_status_created)
+    @Query("select o.id from Order o where o.status = :status and o.createdAt < :cutoff order by o.id")
+    List<Long> findIdsByStatusAndCreatedAtBefore(@Param("status") String status, @Param("cutoff") LocalDateTime cutoff);
+
     // Demo cleanup only: MUST always be called with the demo user entity — never without a user filter
-    List<Order> findByUserAndCreatedAtBefore(User user, LocalDateTime cutoff);
+    @Query("select o.id from Order o where o.user = :user and o.createdAt < :cutoff order by o.id")
+    List<Long> findIdsByUserAndCreatedAtBefore(@Param("user") User user, @Param("cutoff") LocalDateTime cutoff);
+
+    // Demo cleanup only: deletes one id range, re-checking the user and age filter in the statement itself
+    @Modifying
+    @Query("delete from Order o where o.user = :user and o.createdAt < :cutoff and o.id between :fromId and :toId")
+    int deleteByUserAndCreatedAtBeforeAndIdBetween(@Param("user") User user, @Param("cutoff") LocalDateTime cutoff,
+                                                   @Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Order history, newest first, as projections (no items, no user); the Pageable only carries the row limit.
+    // Legacy rows without createdAt sort as if created at :undated
+    @Query("select new com.example.ecomm.dto.OrderSummaryDTO(o.id, o.createdAt, o.amount, o.status, o.customerName, "
+            + "o.phoneNumber, o.addressLine, o.city, o.postalCode) from Order o where o.user = :user "
+            + "order by coalesce(o.createdAt, :undated) desc, o.id desc")
+    List<OrderSummaryDTO> findHistory(@Param("user") User user, @Param("undated") LocalDateTime undated,
+                                      Pageable limit);
+
+    // Next history page strictly after the (createdAt, id) keyset cursor
+    @Query("select new com.example.ecomm.dto.OrderSummaryDTO(o.id, o.createdAt, o.amount, o.status, o.customerName, "
+            + "o.phoneNumber, o.addressLine, o.city, o.postalCode) from Order o where o.user = :user "
+            + "and (coalesce(o.createdAt, :undated) < :createdAt "
+            + "or (coalesce(o.createdAt, :undated) = :createdAt and o.id < :id)) "
+            + "order by coalesce(o.createdAt, :undated) desc, o.id desc")
+    List<OrderSummaryDTO> findHistoryAfter(@Param("user") User user, @Param("undated") LocalDateTime undated,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id, Pageable limit);
+
+    // [count, sum(amount), max(createdAt)] over the user's orders that did not fail; a single row
+    @Query("select count(o), coalesce(sum(o.amount), 0), max(o.createdAt) from Order o "
+            + "where o.user.id = :userId and (o.status is null or o.status <> 'FAILED')")
+    List<Object[]> aggregateByUser(@Param("userId") Long userId);
 }
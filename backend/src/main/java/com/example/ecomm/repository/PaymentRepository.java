@@ -1,10 +1,22 @@
 package com.example.ecomm.repository;
 
 import com.example.ecomm.model.Payment;
+import com.example.ecomm.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByOrderId(Long orderId);
+
+    // Demo cleanup only: payments of the orders in one id range of the user's expired orders
+    @Modifying
+    @Query("delete from Payment p where p.orderId in (select o.id from Order o where o.user = :user "
+            + "and o.createdAt < :cutoff and o.id between :fromId and :toId)")
+    int deleteForOrdersOfUserCreatedBefore(@Param("user") User user, @Param("cutoff") LocalDateTime cutoff,
+                                           @Param("fromId") Long fromId, @Param("toId") Long toId);
 }
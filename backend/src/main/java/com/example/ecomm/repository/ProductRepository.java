@@ -1,10 +1,14 @@
 package com.example.ecomm.repository;
 
 import com.example.ecomm.model.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -19,8 +23,12 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     List<Product> findByMainCategoryAndSubCategory(String mainCategory, String subCategory);
 
-    // Basic search in name or description
-    List<Product> findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(String name, String description);
+    // Keyset chunk: next rows after the given id (WHERE id > ? ORDER BY id LIMIT ?), never OFFSET
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // Current price only, for checkout lines the catalog snapshot does not know yet
+    @Query("SELECT p.price FROM Product p WHERE p.id = :id")
+    Optional<Double> findPriceById(@Param("id") Long id);
 
     // You can still add other methods here if needed
 }
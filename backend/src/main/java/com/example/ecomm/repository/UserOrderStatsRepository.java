@@ -0,0 +1,34 @@
+package com.example.ecomm.repository;
+
+import com.example.ecomm.model.UserOrderStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface UserOrderStatsRepository extends JpaRepository<UserOrderStats, Long> {
+
+    // Atomic in-place increment; 0 rows means the user has no stats row yet
+    @Modifying
+    @Query("update UserOrderStats s set s.orderCount = s.orderCount + 1, s.totalSpent = s.totalSpent + :amount, "
+            + "s.lastOrderAt = case when s.lastOrderAt is null or s.lastOrderAt < :orderedAt "
+            + "then :orderedAt else s.lastOrderAt end where s.userId = :userId")
+    int increment(@Param("userId") Long userId, @Param("amount") double amount,
+                  @Param("orderedAt") LocalDateTime orderedAt);
+
+    // Empty row for a user about to be backfilled; a no-op if one exists or is being inserted
+    @Modifying
+    @Query(value = "insert into user_order_stats (user_id, order_count, total_spent) values (:userId, 0, 0) "
+            + "on conflict do nothing", nativeQuery = true)
+    int insertIfMissing(@Param("userId") Long userId);
+
+    // SELECT ... FOR UPDATE on the stats row; a recompute waits here for uncommitted increments
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from UserOrderStats s where s.userId = :userId")
+    Optional<UserOrderStats> lockById(@Param("userId") Long userId);
+}
@@ -0,0 +1,222 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.model.Product;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable, fully indexed copy of the product catalog.
+ * Built once per refresh by {@link CatalogSnapshotService} and swapped in atomically,
+ * so readers never see a half-built index and never need a lock.
+ *
+ * The Product instances held here are detached — treat them as read-only.
+ */
+public final class CatalogSnapshot {
+
+    private final long version;
+
+    private final List<Product> all;
+    private final Map<Long, Product> byId;
+    private final Map<Long, Integer> ordinals;
+    private final Map<String, List<Product>> byMainCategory;
+    private final Map<String, List<Product>> bySubCategory;
+    private final Map<String, List<Product>> byMainAndSubCategory;
+    private final List<Product> featuredNewestFirst;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacetIndex facetIndex;
+    private final PriceIndex priceIndex;
+    private final PriceTable priceTable;
+
+    private CatalogSnapshot(long version, List<Product> all, CatalogSnapshot previous) {
+        this.version = version;
+        this.all = Collections.unmodifiableList(all);
+
+        Map<Long, Product> ids = new HashMap<>();
+        Map<Long, Integer> ords = new HashMap<>();
+        Map<String, List<Product>> main = new LinkedHashMap<>();
+        Map<String, List<Product>> sub = new LinkedHashMap<>();
+        Map<String, List<Product>> mainSub = new LinkedHashMap<>();
+        List<Product> featured = new ArrayList<>();
+
+        for (int ord = 0; ord < all.size(); ord++) {
+            Product p = all.get(ord);
+            ids.put(p.getId(), p);
+            ords.put(p.getId(), ord);
+            main.computeIfAbsent(p.getMainCategory(), k -> new ArrayList<>()).add(p);
+            sub.computeIfAbsent(p.getSubCategory(), k -> new ArrayList<>()).add(p);
+            mainSub.computeIfAbsent(pairKey(p.getMainCategory(), p.getSubCategory()), k -> new ArrayList<>()).add(p);
+            if (p.isFeatured()) {
+                featured.add(p);
+            }
+        }
+        Collections.reverse(featured); // all is id-ascending → featured becomes newest first
+
+        this.byId = Collections.unmodifiableMap(ids);
+        this.ordinals = Collections.unmodifiableMap(ords);
+        this.byMainCategory = freeze(main);
+        this.bySubCategory = freeze(sub);
+        this.byMainAndSubCategory = freeze(mainSub);
+        this.featuredNewestFirst = Collections.unmodifiableList(featured);
+        this.searchIndex = ProductSearchIndex.build(this.all, previous == null ? null : previous.searchIndex);
+        this.facetIndex = ProductFacetIndex.build(this.all);
+        this.priceIndex = PriceIndex.build(this.all);
+        this.priceTable = PriceTable.build(version, this.all);
+    }
+
+    /**
+     * Builds a snapshot from freshly loaded rows. Products are ordered by id ascending,
+     * which matches the natural insert order the listing endpoints used to return.
+     *
+     * @param previous the snapshot being replaced (or null); its per-product search tokens are reused
+     */
+    static CatalogSnapshot build(long version, List<Product> products, CatalogSnapshot previous) {
+        return new CatalogSnapshot(version, sortedById(products), previous);
+    }
+
+    /** True if freshly loaded rows hold exactly this snapshot's content, so no rebuild is needed. */
+    boolean hasSameContent(List<Product> products) {
+        return sameContent(all, sortedById(products));
+    }
+
+    /**
+     * Exact comparison of every field a client can observe (no hashing, so no change is ever
+     * mistaken for "unchanged"). Lists must be in the same order.
+     */
+    static boolean sameContent(List<Product> a, List<Product> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (!sameContent(a.get(i), b.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean sameContent(Product a, Product b) {
+        return Objects.equals(a.getId(), b.getId())
+                && Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getDescription(), b.getDescription())
+                && Objects.equals(a.getPrice(), b.getPrice())
+                && Objects.equals(a.getImageUrl(), b.getImageUrl())
+                && a.isFeatured() == b.isFeatured()
+                && Objects.equals(a.getMainCategory(), b.getMainCategory())
+                && Objects.equals(a.getSubCategory(), b.getSubCategory())
+                && Objects.equals(a.getDetails(), b.getDetails())
+                && Objects.equals(a.getAttributes(), b.getAttributes());
+    }
+
+    private static List<Product> sortedById(List<Product> products) {
+        List<Product> sorted = new ArrayList<>(products);
+        sorted.sort(Comparator.comparing(Product::getId));
+        return sorted;
+    }
+
+    private static String pairKey(String main, String sub) {
+        return main + '\u0000' + sub;
+    }
+
+    private static Map<String, List<Product>> freeze(Map<String, List<Product>> index) {
+        Map<String, List<Product>> frozen = new HashMap<>();
+        index.forEach((k, v) -> frozen.put(k, Collections.unmodifiableList(v)));
+        return Collections.unmodifiableMap(frozen);
+    }
+
+    // Accessors
+
+    /** Monotonic catalog version; only moves when the catalog content changes. */
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Product> all() {
+        return all;
+    }
+
+    public Product findById(Long id) {
+        return byId.get(id);
+    }
+
+    public List<Product> findByMainCategory(String mainCategory) {
+        return byMainCategory.getOrDefault(mainCategory, List.of());
+    }
+
+    public List<Product> findBySubCategory(String subCategory) {
+        return bySubCategory.getOrDefault(subCategory, List.of());
+    }
+
+    public List<Product> findByMainCategoryAndSubCategory(String mainCategory, String subCategory) {
+        return byMainAndSubCategory.getOrDefault(pairKey(mainCategory, subCategory), List.of());
+    }
+
+    /** Featured products, newest (highest id) first — same order as findByFeaturedTrueOrderByIdDesc. */
+    public List<Product> featured() {
+        return featuredNewestFirst;
+    }
+
+    /** Full-text index over name, description and attribute values. */
+    public ProductSearchIndex searchIndex() {
+        return searchIndex;
+    }
+
+    /** Bitmap index over attribute values; bit positions are positions in {@link #all()}. */
+    public ProductFacetIndex facetIndex() {
+        return facetIndex;
+    }
+
+    /** Products sorted by price; positions are positions in {@link #all()}. */
+    public PriceIndex priceIndex() {
+        return priceIndex;
+    }
+
+    /** Unit prices by product id, used to price orders at checkout. */
+    public PriceTable priceTable() {
+        return priceTable;
+    }
+
+    /** Products at the given snapshot positions, in that order. */
+    public List<Product> atPositions(int[] positions) {
+        List<Product> products = new ArrayList<>(positions.length);
+        for (int ord : positions) {
+            products.add(all.get(ord));
+        }
+        return products;
+    }
+
+    /** Bitmap of the given snapshot products, addressable by the facet index. */
+    public BitSet toBitSet(List<Product> products) {
+        BitSet bits = new BitSet(all.size());
+        for (Product p : products) {
+            Integer ord = ordinals.get(p.getId());
+            if (ord != null) {
+                bits.set(ord);
+            }
+        }
+        return bits;
+    }
+
+    /** Keeps the products (in their given order) whose snapshot position is set in {@code bits}. */
+    public List<Product> retain(List<Product> products, BitSet bits) {
+        List<Product> kept = new ArrayList<>();
+        for (Product p : products) {
+            Integer ord = ordinals.get(p.getId());
+            if (ord != null && bits.get(ord)) {
+                kept.add(p);
+            }
+        }
+        return kept;
+    }
+
+    public int size() {
+        return all.size();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.model.Product;
+import com.example.ecomm.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves catalog reads from an in-memory {@link CatalogSnapshot} instead of Postgres.
+ *
+ * The whole products table is loaded once (after the seeders have run) and re-read on a
+ * fixed delay. The table has no change column to probe, so every refresh reads it; the rows
+ * are then compared field by field with the current snapshot, and only a real change builds
+ * a new snapshot (with all its indexes) and bumps the catalog version.
+ *
+ * Versions count from 1 in every process, so they only identify a catalog together with
+ * {@link #getEpoch()}, which is drawn at random when this instance starts.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    /** Rows per keyset chunk when loading the catalog. */
+    private static final int LOAD_CHUNK_SIZE = 500;
+
+    private final ProductRepository productRepository;
+
+    private final String epoch = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36);
+
+    // Readers only ever see a fully built snapshot; writers swap the reference under the refresh lock
+    private volatile CatalogSnapshot snapshot;
+
+    public CatalogSnapshotService(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Current snapshot. Loads the catalog on first use if the startup load has not happened yet.
+     */
+    public CatalogSnapshot current() {
+        CatalogSnapshot s = snapshot;
+        if (s == null) {
+            s = refresh();
+        }
+        return s;
+    }
+
+    /** Random per-process tag; the same version number means the same catalog only within one epoch. */
+    public String getEpoch() {
+        return epoch;
+    }
+
+    /** Initial load once the application (and DataSeeder) has finished starting. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        refresh();
+    }
+
+    /** Picks up products changed directly in the database (admin edits, re-seeding). */
+    @Scheduled(fixedDelayString = "${catalog.refresh-interval-ms:300000}",
+            initialDelayString = "${catalog.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * Reloads all products and swaps in a new snapshot if anything changed.
+     * Call this after writing to the products table.
+     *
+     * @return the snapshot that is current after the refresh
+     */
+    public synchronized CatalogSnapshot refresh() {
+        List<Product> products = loadAllProducts();
+        CatalogSnapshot previous = snapshot;
+
+        if (previous != null && previous.hasSameContent(products)) {
+            log.debug("Catalog refresh: no changes ({} products, version={})", previous.size(), previous.getVersion());
+            return previous;
+        }
+
+        long nextVersion = previous == null ? 1L : previous.getVersion() + 1;
+        CatalogSnapshot candidate = CatalogSnapshot.build(nextVersion, products, previous);
+        snapshot = candidate;
+        log.info("Catalog snapshot loaded: {} products (version={})", candidate.size(), candidate.getVersion());
+        return candidate;
+    }
+
+    /** Reads the products table in id-ordered keyset chunks so each query stays small and index-driven. */
+    private List<Product> loadAllProducts() {
+        List<Product> products = new ArrayList<>();
+        long lastId = 0L;
+        while (true) {
+            List<Product> chunk = productRepository.findByIdGreaterThanOrderByIdAsc(
+                    lastId, PageRequest.of(0, LOAD_CHUNK_SIZE));
+            products.addAll(chunk);
+            if (chunk.size() < LOAD_CHUNK_SIZE) {
+                return products;
+            }
+            lastId = chunk.get(chunk.size() - 1).getId();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.ecomm.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Checkout instrumentation: a {@code checkout.stage} timer tagged by stage, a
+ * {@code checkout.items} distribution summary, and a {@link CheckoutStageEvent} per stage
+ * for flight recordings. Meters are published through /actuator/metrics.
+ */
+@Component
+public class CheckoutMetrics {
+
+    public static final String USER_LOOKUP = "user_lookup";
+    public static final String ITEMS = "items";
+    public static final String ORDER_INSERT = "order_insert";
+    public static final String PAYMENT = "payment";
+    public static final String TRANSACTION = "transaction";
+    public static final String ASYNC_BATCH = "async_batch";
+
+    private final MeterRegistry registry;
+
+    // Timers are cached per stage so the hot path does no registry lookups
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final DistributionSummary syncItems;
+    private final DistributionSummary asyncItems;
+
+    public CheckoutMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.syncItems = itemsSummary("sync");
+        this.asyncItems = itemsSummary("async");
+    }
+
+    private DistributionSummary itemsSummary(String mode) {
+        return DistributionSummary.builder("checkout.items")
+                .description("Order items per checkout")
+                .baseUnit("items")
+                .tag("mode", mode)
+                .register(registry);
+    }
+
+    /** Times {@code work} as {@code stage}; {@code items} is only attached to the JFR event. */
+    public <T> T time(String stage, int items, Supplier<T> work) {
+        CheckoutStageEvent event = new CheckoutStageEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            timer(stage).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            event.end();
+            if (event.shouldCommit()) {
+                event.stage = stage;
+                event.items = items;
+                event.commit();
+            }
+        }
+    }
+
+    public void time(String stage, int items, Runnable work) {
+        time(stage, items, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public void recordItems(int count, boolean async) {
+        (async ? asyncItems : syncItems).record(count);
+    }
+
+    private Timer timer(String stage) {
+        return timers.computeIfAbsent(stage, s -> Timer.builder("checkout.stage")
+                .description("Time spent per checkout stage")
+                .tag("stage", s)
+                .register(registry));
+    }
+}
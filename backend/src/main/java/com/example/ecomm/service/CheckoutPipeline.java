@@ -0,0 +1,269 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.model.Order;
+import com.example.ecomm.model.OrderItem;
+import com.example.ecomm.model.Payment;
+import com.example.ecomm.repository.OrderRepository;
+import com.example.ecomm.repository.PaymentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded worker pipeline for asynchronous checkout.
+ *
+ * The request thread reserves a slot ({@link #tryReserve()}), commits the PENDING order and
+ * hands the payment over with {@link #submit(Job)}. Workers drain the queue in batches and
+ * record payments plus the PENDING → PAID transition for a whole batch in one transaction,
+ * falling back to one transaction per order if a batch fails. When every slot is taken,
+ * checkout is refused up front (503) instead of queueing unbounded work.
+ *
+ * Jobs only live in memory, so a restart or crash strands their orders as PENDING with stock
+ * reserved. A periodic sweep fails PENDING orders older than {@code checkout.async.pending-timeout-ms}
+ * that this instance is not working on, and gives their stock back; card details are never
+ * stored, so such orders cannot be paid after the fact.
+ *
+ * Both transitions leave PENDING only: the order row is locked and its status re-checked
+ * first, so two instances can never both pay, or both fail and restock, the same order.
+ */
+@Service
+public class CheckoutPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutPipeline.class);
+
+    private final OrderRepository orderRepository;
+    private final PaymentRepository paymentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CheckoutMetrics metrics;
+    private final StockLedger stockLedger;
+    private final OutboxService outbox;
+    private final OrderStatusHub statusHub;
+    private final UserOrderStatsService orderStats;
+
+    private final int workers;
+    private final int batchSize;
+    private final long pendingTimeoutMs;
+
+    // Slots = queued + in-flight jobs; the queue can never overflow because submit() needs a slot
+    private final Semaphore slots;
+    private final BlockingQueue<Job> queue;
+    // Orders submitted to this instance and not processed yet; the sweep leaves them alone
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    public CheckoutPipeline(
+            OrderRepository orderRepository,
+            PaymentRepository paymentRepository,
+            TransactionTemplate transactionTemplate,
+            CheckoutMetrics metrics,
+            StockLedger stockLedger,
+            OutboxService outbox,
+            OrderStatusHub statusHub,
+            UserOrderStatsService orderStats,
+            @Value("${checkout.async.queue-capacity:500}") int capacity,
+            @Value("${checkout.async.workers:2}") int workers,
+            @Value("${checkout.async.batch-size:50}") int batchSize,
+            @Value("${checkout.async.pending-timeout-ms:600000}") long pendingTimeoutMs) {
+        this.orderRepository = orderRepository;
+        this.paymentRepository = paymentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.metrics = metrics;
+        this.stockLedger = stockLedger;
+        this.outbox = outbox;
+        this.statusHub = statusHub;
+        this.orderStats = orderStats;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.pendingTimeoutMs = pendingTimeoutMs;
+        this.slots = new Semaphore(capacity);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /** Payment to record for an accepted (PENDING) order. */
+    public static class Job {
+        private final Long orderId;
+        private final Double amount;
+        private final String cardholderName;
+        private final String last4;
+
+        public Job(Long orderId, Double amount, String cardholderName, String last4) {
+            this.orderId = orderId;
+            this.amount = amount;
+            this.cardholderName = cardholderName;
+            this.last4 = last4;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        AtomicInteger n = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "checkout-worker-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::work);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Checkout workers did not finish; {} job(s) left PENDING", queue.size());
+        }
+    }
+
+    /** Reserves a pipeline slot; false means the pipeline is saturated and the caller should shed the request. */
+    public boolean tryReserve() {
+        return slots.tryAcquire();
+    }
+
+    /** Returns a slot reserved by {@link #tryReserve()} when the order was never committed. */
+    public void release() {
+        slots.release();
+    }
+
+    /** Queues a committed PENDING order; the caller must hold a reserved slot. */
+    public void submit(Job job) {
+        inFlight.add(job.orderId);
+        if (!queue.offer(job)) {
+            // Unreachable while every submit holds a slot
+            inFlight.remove(job.orderId);
+            slots.release();
+            throw new IllegalStateException("Checkout queue overflow");
+        }
+    }
+
+    private void work() {
+        List<Job> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Job first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.forEach(job -> inFlight.remove(job.orderId));
+                slots.release(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<Job> batch) {
+        try {
+            metrics.time(CheckoutMetrics.ASYNC_BATCH, batch.size(),
+                    () -> transactionTemplate.executeWithoutResult(status -> pay(batch)));
+        } catch (RuntimeException batchFailure) {
+            log.warn("Checkout batch of {} failed, retrying one by one: {}", batch.size(), batchFailure.toString());
+            for (Job job : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> pay(List.of(job)));
+                } catch (RuntimeException e) {
+                    log.error("Checkout for order {} failed", job.orderId, e);
+                    markFailed(job.orderId);
+                }
+            }
+        }
+    }
+
+    // One locking query for the orders; payment inserts and status updates flush together at commit
+    private void pay(List<Job> jobs) {
+        Map<Long, Order> orders = new HashMap<>();
+        for (Order order : orderRepository.lockAllById(jobs.stream().map(j -> j.orderId).toList())) {
+            orders.put(order.getId(), order);
+        }
+        for (Job job : jobs) {
+            Order order = orders.get(job.orderId);
+            if (order == null || !"PENDING".equals(order.getStatus())) {
+                continue;
+            }
+            Payment payment = new Payment(job.orderId, job.amount, job.cardholderName, job.last4);
+            payment.setStatus("PAID");
+            payment.setPaidAt(LocalDateTime.now());
+            paymentRepository.save(payment);
+            order.setStatus("PAID");
+            statusHub.publishAfterCommit(order);
+            outbox.record(OutboxService.PAYMENT, payment.getId(), OutboxService.PAYMENT_RECORDED,
+                    OutboxService.paymentPayload(payment));
+        }
+    }
+
+    /** Fails PENDING orders whose job was lost, e.g. queued on an instance that has since stopped. */
+    @Scheduled(fixedDelayString = "${checkout.async.sweep-interval-ms:60000}", initialDelayString = "30000")
+    public void failStalePending() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(pendingTimeoutMs * 1_000_000);
+        int failed = 0;
+        for (Long orderId : orderRepository.findIdsByStatusAndCreatedAtBefore("PENDING", cutoff)) {
+            if (!inFlight.contains(orderId) && markFailed(orderId)) {
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            log.warn("Failed {} PENDING order(s) older than {} ms without a payment job", failed, pendingTimeoutMs);
+        }
+    }
+
+    // FAILED orders give their reserved stock back; false if the order was no longer PENDING
+    private boolean markFailed(Long orderId) {
+        try {
+            Map<Long, Integer> reserved = transactionTemplate.execute(status -> orderRepository.lockById(orderId)
+                    .filter(order -> "PENDING".equals(order.getStatus()))
+                    .map(order -> {
+                        order.setStatus("FAILED");
+                        statusHub.publishAfterCommit(order);
+                        if (order.getUser() != null) {
+                            orderStats.refresh(order.getUser().getId());
+                        }
+                        outbox.record(OutboxService.ORDER, order.getId(), OutboxService.ORDER_FAILED,
+                                OutboxService.orderPayload(order));
+                        Map<Long, Integer> quantities = new HashMap<>();
+                        for (OrderItem item : order.getOrderItems()) {
+                            if (item.getProduct() != null) {
+                                quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+                            }
+                        }
+                        // Recorded with the status change, so a crash cannot lose the restock
+                        stockLedger.restock(quantities);
+                        return quantities;
+                    })
+                    .orElse(null));
+            return reserved != null;
+        } catch (RuntimeException e) {
+            log.error("Could not mark order {} as FAILED", orderId, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.dto.CheckoutItemDTO;
+import com.example.ecomm.dto.CheckoutRequest;
+import com.example.ecomm.model.IdempotencyRecord;
+import com.example.ecomm.model.Order;
+import com.example.ecomm.model.OrderItem;
+import com.example.ecomm.model.Payment;
+import com.example.ecomm.model.Product;
+import com.example.ecomm.model.User;
+import com.example.ecomm.repository.OrderRepository;
+import com.example.ecomm.repository.PaymentRepository;
+import com.example.ecomm.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Places orders for POST /api/checkout/complete: order, order items and payment in one transaction.
+ *
+ * With an Idempotency-Key the first request's response is stored alongside the order, and
+ * retries with the same key and payload get that response back without touching the order
+ * tables again. Reusing a key for a different payload is rejected with 422.
+ *
+ * In async mode only the PENDING order and its items are written on the request thread;
+ * the payment and the PAID transition are batched by {@link CheckoutPipeline}.
+ */
+@Service
+public class CheckoutService {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutService.class);
+
+    private final OrderRepository orderRepository;
+    private final PaymentRepository paymentRepository;
+    private final ProductRepository productRepository;
+    private final IdempotencyStore idempotencyStore;
+    private final CheckoutPipeline pipeline;
+    private final CheckoutMetrics metrics;
+    private final StockLedger stockLedger;
+    private final OrderPricing orderPricing;
+    private final OutboxService outbox;
+    private final CatalogSnapshotService catalog;
+    private final OrderStatusHub statusHub;
+    private final UserOrderStatsService orderStats;
+    private final GroupCommitWriter groupCommitWriter;
+    private final ObjectMapper objectMapper;
+
+    public CheckoutService(
+            OrderRepository orderRepository,
+            PaymentRepository paymentRepository,
+            ProductRepository productRepository,
+            IdempotencyStore idempotencyStore,
+            CheckoutPipeline pipeline,
+            CheckoutMetrics metrics,
+            StockLedger stockLedger,
+            OrderPricing orderPricing,
+            OutboxService outbox,
+            CatalogSnapshotService catalog,
+            OrderStatusHub statusHub,
+            UserOrderStatsService orderStats,
+            GroupCommitWriter groupCommitWriter,
+            ObjectMapper objectMapper) {
+        this.orderRepository = orderRepository;
+        this.paymentRepository = paymentRepository;
+        this.productRepository = productRepository;
+        this.idempotencyStore = idempotencyStore;
+        this.pipeline = pipeline;
+        this.metrics = metrics;
+        this.stockLedger = stockLedger;
+        this.orderPricing = orderPricing;
+        this.outbox = outbox;
+        this.catalog = catalog;
+        this.statusHub = statusHub;
+        this.orderStats = orderStats;
+        this.groupCommitWriter = groupCommitWriter;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Response body plus whether it was replayed from an earlier request with the same key. */
+    public static class Result {
+        private final Map<String, Object> body;
+        private final boolean replayed;
+
+        Result(Map<String, Object> body, boolean replayed) {
+            this.body = body;
+            this.replayed = replayed;
+        }
+
+        public Map<String, Object> getBody() {
+            return body;
+        }
+
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+
+    /**
+     * Completes a checkout for {@code user}.
+     *
+     * @param idempotencyKey Idempotency-Key header value, or null to always place a new order
+     * @param async          accept the order as PENDING and leave the payment to {@link CheckoutPipeline}
+     */
+    public Result complete(User user, CheckoutRequest request, String idempotencyKey, boolean async) {
+        // Validate required fields
+        if (request.getAmount() == null || request.getAmount() <= 0) {
+            throw new RuntimeException("Invalid order amount");
+        }
+        if (request.getItems() != null) {
+            for (CheckoutItemDTO item : request.getItems()) {
+                if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid item quantity");
+                }
+            }
+        }
+        if (idempotencyKey == null) {
+            return new Result(place(user, request, async, null, null), false);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyStore.MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid Idempotency-Key");
+        }
+
+        // Hash the request as received: a retry must match regardless of later catalog changes
+        String requestHash = hash(request);
+        ReentrantLock lock = idempotencyStore.lockFor(user.getId(), idempotencyKey);
+        lock.lock();
+        try {
+            IdempotencyRecord existing = idempotencyStore.find(user.getId(), idempotencyKey).orElse(null);
+            if (existing != null) {
+                return replay(existing, requestHash);
+            }
+            try {
+                return new Result(place(user, request, async, idempotencyKey, requestHash), false);
+            } catch (DataIntegrityViolationException e) {
+                // Another instance committed the same key first; its order stands, ours rolled back
+                return idempotencyStore.find(user.getId(), idempotencyKey)
+                        .map(record -> replay(record, requestHash))
+                        .orElseThrow(() -> e);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Commits the order (plus the idempotency record, if keyed) and, in async mode, queues the payment
+    private Map<String, Object> place(User user, CheckoutRequest request, boolean async, String idempotencyKey,
+            String requestHash) {
+        // Never trust client prices: every line and the total are re-priced from the catalog.
+        // Only new orders are priced; a replay returns the stored response as it was.
+        orderPricing.applyPrices(request);
+
+        if (async && !pipeline.tryReserve()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Checkout is busy, please retry");
+        }
+
+        IdempotencyRecord[] stored = new IdempotencyRecord[1];
+        Map<String, Object> body;
+        try {
+            body = metrics.time(CheckoutMetrics.TRANSACTION, itemCount(request), () -> groupCommitWriter.execute(() -> {
+                Map<String, Object> response = placeOrder(user, request, async);
+                if (idempotencyKey != null) {
+                    stored[0] = new IdempotencyRecord(user.getId(), idempotencyKey, requestHash, toJson(response));
+                    idempotencyStore.save(stored[0]);
+                }
+                return response;
+            }));
+        } catch (RuntimeException e) {
+            if (async) {
+                pipeline.release();
+            }
+            throw e;
+        }
+
+        if (async) {
+            pipeline.submit(new CheckoutPipeline.Job(
+                    (Long) body.get("orderId"), request.getAmount(), request.getCardholderName(), last4(request)));
+        }
+        if (stored[0] != null) {
+            idempotencyStore.remember(stored[0]);
+        }
+        return body;
+    }
+
+    private Result replay(IdempotencyRecord record, String requestHash) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used with a different request");
+        }
+        try {
+            return new Result(objectMapper.readValue(record.getResponseBody(), new TypeReference<Map<String, Object>>() {
+            }), true);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored checkout response is not valid JSON", e);
+        }
+    }
+
+    // Runs inside the caller's transaction
+    private Map<String, Object> placeOrder(User user, CheckoutRequest request, boolean async) {
+        // Create order - it is written once, already in its final state
+        Order order = new Order(
+                user,
+                request.getCustomerName(),
+                request.getPhoneNumber(),
+                request.getAddressLine(),
+                request.getCity(),
+                request.getPostalCode(),
+                request.getAmount());
+        order.setStatus(async ? "PENDING" : "PAID");
+        order.setCreatedAt(LocalDateTime.now());
+
+        // Create order items from cart items
+        int itemCount = itemCount(request);
+        if (itemCount > 0) {
+            metrics.time(CheckoutMetrics.ITEMS, itemCount, () -> addItems(order, request.getItems()));
+        }
+        metrics.recordItems(itemCount, async);
+
+        // Flush writes the order row and its items as one JDBC batch
+        Order savedOrder = metrics.time(CheckoutMetrics.ORDER_INSERT, itemCount,
+                () -> orderRepository.saveAndFlush(order));
+        statusHub.publishAfterCommit(savedOrder);
+
+        // Return success response
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("orderId", savedOrder.getId());
+        if (async) {
+            // Payment is recorded by CheckoutPipeline; clients poll GET /api/orders/{id}
+            outbox.record(OutboxService.ORDER, savedOrder.getId(), OutboxService.ORDER_ACCEPTED,
+                    OutboxService.orderPayload(savedOrder));
+            response.put("status", "PENDING");
+            response.put("message", "Order accepted");
+            orderStats.recordOrder(user.getId(), savedOrder.getAmount(), savedOrder.getCreatedAt());
+            return response;
+        }
+
+        // Mock payment processing - extract last 4 digits of card
+        String last4 = last4(request);
+
+        // Create payment record
+        metrics.time(CheckoutMetrics.PAYMENT, itemCount, () -> {
+            Payment payment = new Payment(
+                    savedOrder.getId(),
+                    request.getAmount(),
+                    request.getCardholderName(),
+                    last4);
+            payment.setStatus("PAID");
+            payment.setPaidAt(LocalDateTime.now());
+            paymentRepository.save(payment);
+            outbox.record(OutboxService.PAYMENT, payment.getId(), OutboxService.PAYMENT_RECORDED,
+                    OutboxService.paymentPayload(payment));
+        });
+        outbox.record(OutboxService.ORDER, savedOrder.getId(), OutboxService.ORDER_PLACED,
+                OutboxService.orderPayload(savedOrder));
+        // Last write of the order: the stats row stays locked from here until commit
+        orderStats.recordOrder(user.getId(), savedOrder.getAmount(), savedOrder.getCreatedAt());
+
+        response.put("message", "Order placed successfully");
+
+        return response;
+    }
+
+    // Items are persisted through the order's cascade. OrderPricing already checked every product
+    // against the catalog, so plain references suffice and no product rows are loaded.
+    private void addItems(Order order, List<CheckoutItemDTO> items) {
+        // Reserve stock for every line at once; released again if this transaction rolls back
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (CheckoutItemDTO itemDTO : items) {
+            quantities.merge(itemDTO.getProductId(), itemDTO.getQuantity(), Integer::sum);
+        }
+        stockLedger.reserve(quantities);
+
+        // Name and image are snapshotted from the in-memory catalog; touching the proxy would load the row
+        CatalogSnapshot snapshot = catalog.current();
+        for (CheckoutItemDTO itemDTO : items) {
+            OrderItem item = new OrderItem();
+            item.setProduct(productRepository.getReferenceById(itemDTO.getProductId()));
+            item.setQuantity(itemDTO.getQuantity());
+            item.setPrice(itemDTO.getPrice());
+            Product product = snapshot.findById(itemDTO.getProductId());
+            if (product != null) {
+                item.setProductName(product.getName());
+                item.setProductImageUrl(product.getImageUrl());
+            }
+            order.addOrderItem(item);
+        }
+    }
+
+    private static int itemCount(CheckoutRequest request) {
+        return request.getItems() != null ? request.getItems().size() : 0;
+    }
+
+    private static String last4(CheckoutRequest request) {
+        return request.getCardNumber() != null && request.getCardNumber().length() >= 4
+                ? request.getCardNumber().substring(request.getCardNumber().length() - 4)
+                : "0000";
+    }
+
+    /**
+     * SHA-256 over the order-relevant fields. The card is represented by its last 4 digits only,
+     * so neither the full number nor the CVV ever reaches the idempotency table.
+     */
+    static String hash(CheckoutRequest request) {
+        StringBuilder sb = new StringBuilder()
+                .append(request.getCustomerName()).append('\u001f')
+                .append(request.getPhoneNumber()).append('\u001f')
+                .append(request.getAddressLine()).append('\u001f')
+                .append(request.getCity()).append('\u001f')
+                .append(request.getPostalCode()).append('\u001f')
+                .append(request.getCardholderName()).append('\u001f')
+                .append(last4(request)).append('\u001f')
+                .append(request.getAmount());
+        if (request.getItems() != null) {
+            for (CheckoutItemDTO item : request.getItems()) {
+                sb.append('\u001e').append(item.getProductId())
+                        .append('\u001f').append(item.getQuantity())
+                        .append('\u001f').append(item.getPrice());
+            }
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(Map<String, Object> response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize checkout response", e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.ecomm.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one checkout stage. Costs nothing unless a flight recording that includes it
+ * is running, e.g. {@code jcmd <pid> JFR.start name=checkout duration=60s}.
+ */
+@Name("com.example.ecomm.CheckoutStage")
+@Label("Checkout Stage")
+@Category({"Ecomm", "Checkout"})
+@Description("Duration of one stage of POST /api/checkout/complete or of an async checkout batch")
+@StackTrace(false)
+class CheckoutStageEvent extends Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Items")
+    int items;
+}
@@ -1,7 +1,7 @@
 package com.example.ecomm.service;
 
-import com.example.ecomm.model.Order;
 import com.example.ecomm.model.User;
+import com.example.ecomm.repository.OrderItemRepository;
 import com.example.ecomm.repository.OrderRepository;
 import com.example.ecomm.repository.PaymentRepository;
 import com.example.ecomm.repository.UserRepository;
@@ -9,10 +9,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -22,6 +21,10 @@ import java.util.Optional;
  * Real users' orders are never queried or deleted by this service.
  *
  * SAFETY: Still scoped ONLY to username=demo + age filter. Real users are never touched.
+ *
+ * Deletes are set-based (payments, order items, then orders) and run in id-range chunks of
+ * {@link #CHUNK_SIZE} orders, one short transaction per chunk. Every delete statement repeats
+ * the user + age filter, so the id range alone can never widen what is removed.
  */
 @Service
 public class DemoOrderCleanupService {
@@ -40,17 +43,29 @@ public class DemoOrderCleanupService {
      */
     private static final boolean DRY_RUN = false;
 
+    /** Orders per delete transaction; keeps lock time short during bursts of demo traffic. */
+    private static final int CHUNK_SIZE = 500;
+
     private final UserRepository userRepository;
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final PaymentRepository paymentRepository;
+    private final UserOrderStatsService orderStats;
+    private final TransactionTemplate transactionTemplate;
 
     public DemoOrderCleanupService(
             UserRepository userRepository,
             OrderRepository orderRepository,
-            PaymentRepository paymentRepository) {
+            OrderItemRepository orderItemRepository,
+            PaymentRepository paymentRepository,
+            UserOrderStatsService orderStats,
+            TransactionTemplate transactionTemplate) {
         this.userRepository = userRepository;
         this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
         this.paymentRepository = paymentRepository;
+        this.orderStats = orderStats;
+        this.transactionTemplate = transactionTemplate;
     }
 
     /**
@@ -60,7 +75,6 @@ public class DemoOrderCleanupService {
      * @return IDs of demo orders that are cleanup candidates (also used by tests / dry-run asserts)
      */
     @Scheduled(fixedDelayString = "600000", initialDelayString = "60000")
-    @Transactional
     public List<Long> cleanupExpiredDemoOrders() {
         Optional<User> demoUserOpt = userRepository.findByUsername(DEMO_USERNAME);
         if (demoUserOpt.isEmpty()) {
@@ -71,10 +85,10 @@ public class DemoOrderCleanupService {
         User demoUser = demoUserOpt.get();
         LocalDateTime cutoff = LocalDateTime.now().minusMinutes(ORDER_TTL_MINUTES);
 
-        // CRITICAL: always filter by demo user — never delete by age alone
-        List<Order> expiredDemoOrders = orderRepository.findByUserAndCreatedAtBefore(demoUser, cutoff);
+        // CRITICAL: always filter by demo user — never delete by age alone. Ids only, sorted ascending
+        List<Long> candidateIds = orderRepository.findIdsByUserAndCreatedAtBefore(demoUser, cutoff);
 
-        if (expiredDemoOrders.isEmpty()) {
+        if (candidateIds.isEmpty()) {
             log.debug(
                     "Demo order cleanup: no orders for user='{}' older than {} minutes (cutoff={})",
                     DEMO_USERNAME,
@@ -85,48 +99,47 @@ public class DemoOrderCleanupService {
 
         log.info(
                 "Demo order cleanup: found {} order(s) for user='{}' with createdAt < {} (DRY_RUN={})",
-                expiredDemoOrders.size(),
+                candidateIds.size(),
                 DEMO_USERNAME,
                 cutoff,
                 DRY_RUN);
 
-        List<Long> candidateIds = new ArrayList<>();
-
-        for (Order order : expiredDemoOrders) {
-            candidateIds.add(order.getId());
-
-            if (DRY_RUN) {
-                log.info(
-                        "DRY-RUN: would delete order id={} (user={}, createdAt={})",
-                        order.getId(),
-                        DEMO_USERNAME,
-                        order.getCreatedAt());
-                continue;
-            }
-
-            // Real delete path (disabled while DRY_RUN=true)
-            // Delete linked payment first (no FK cascade from Order → Payment)
-            paymentRepository.findByOrderId(order.getId()).ifPresent(payment -> {
-                paymentRepository.delete(payment);
-                log.info("Deleted payment id={} for demo order id={}", payment.getId(), order.getId());
-            });
-
-            // OrderItems cascade via Order.orderItems (CascadeType.ALL + orphanRemoval)
-            // Product rows are NOT deleted (OrderItem → Product is ManyToOne without cascade remove)
-            orderRepository.delete(order);
+        if (DRY_RUN) {
             log.info(
-                    "Deleted demo order id={} (user={}, createdAt={})",
-                    order.getId(),
-                    DEMO_USERNAME,
-                    order.getCreatedAt());
+                    "DRY-RUN complete: {} demo order(s) logged, none deleted (ids={}). Set DRY_RUN=false to enable real deletes.",
+                    candidateIds.size(),
+                    candidateIds);
+            return candidateIds;
         }
 
-        if (DRY_RUN) {
-            log.info(
-                    "DRY-RUN complete: {} demo order(s) logged, none deleted. Set DRY_RUN=false to enable real deletes.",
-                    expiredDemoOrders.size());
+        for (int from = 0; from < candidateIds.size(); from += CHUNK_SIZE) {
+            Long fromId = candidateIds.get(from);
+            Long toId = candidateIds.get(Math.min(from + CHUNK_SIZE, candidateIds.size()) - 1);
+            deleteChunk(demoUser, cutoff, fromId, toId);
         }
 
         return candidateIds;
     }
+
+    // Payments first (no FK cascade from Order → Payment), then order items, then orders.
+    // Product rows are NOT deleted (OrderItem → Product is ManyToOne without cascade remove)
+    private void deleteChunk(User demoUser, LocalDateTime cutoff, Long fromId, Long toId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int payments = paymentRepository.deleteForOrdersOfUserCreatedBefore(demoUser, cutoff, fromId, toId);
+            int items = orderItemRepository.deleteForOrdersOfUserCreatedBefore(demoUser, cutoff, fromId, toId);
+            int orders = orderRepository.deleteByUserAndCreatedAtBeforeAndIdBetween(demoUser, cutoff, fromId, toId);
+
+            // Same transaction as the deletes: the demo user's aggregates never count deleted orders
+            orderStats.refresh(demoUser.getId());
+
+            log.info(
+                    "Deleted {} demo order(s), {} item(s), {} payment(s) with ids {}..{} (user={})",
+                    orders,
+                    items,
+                    payments,
+                    fromId,
+                    toId,
+                    DEMO_USERNAME);
+        });
+    }
 }
@@ -0,0 +1,128 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.dto.ProductDTO;
+import com.example.ecomm.dto.ProductSummaryDTO;
+import com.example.ecomm.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-encoded body for the homepage carousel (/api/products/top and /featured).
+ *
+ * The featured list is serialized to UTF-8 JSON (full and summary views) and gzipped once,
+ * and the same byte arrays are written to every response until the featured products
+ * themselves change. Changes to non-featured products do not invalidate it.
+ */
+@Service
+public class FeaturedResponseCache {
+
+    private final CatalogSnapshotService catalog;
+    private final ObjectMapper objectMapper;
+
+    private volatile Encoded encoded;
+
+    public FeaturedResponseCache(CatalogSnapshotService catalog, ObjectMapper objectMapper) {
+        this.catalog = catalog;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Encoded featured list for the current catalog, re-encoding only if the featured set changed. */
+    public Encoded current() {
+        CatalogSnapshot snapshot = catalog.current();
+        Encoded e = encoded;
+        // Same snapshot list: nothing to compare
+        if (e != null && e.featured == snapshot.featured()) {
+            return e;
+        }
+        return rebuild(snapshot);
+    }
+
+    // One thread compares (and encodes) per new snapshot; the others reuse its result
+    private synchronized Encoded rebuild(CatalogSnapshot snapshot) {
+        Encoded e = encoded;
+        if (e != null && e.featured == snapshot.featured()) {
+            return e;
+        }
+        if (e != null && CatalogSnapshot.sameContent(e.featured, snapshot.featured())) {
+            // Unchanged featured set: keep the bytes, remember the new list for the fast path
+            e = new Encoded(snapshot.featured(), e.fullJson, e.fullGzip, e.summaryJson, e.summaryGzip);
+        } else {
+            e = encode(snapshot);
+        }
+        encoded = e;
+        return e;
+    }
+
+    private Encoded encode(CatalogSnapshot snapshot) {
+        List<ProductDTO> full = snapshot.featured().stream().map(ProductDTO::from).toList();
+        List<ProductSummaryDTO> summary = snapshot.featured().stream().map(ProductSummaryDTO::from).toList();
+        try {
+            byte[] fullJson = objectMapper.writeValueAsBytes(full);
+            byte[] summaryJson = objectMapper.writeValueAsBytes(summary);
+            return new Encoded(snapshot.featured(),
+                    fullJson, gzip(fullJson), summaryJson, gzip(summaryJson));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize featured products", ex);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(bytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+
+    /** True if the client listed gzip in Accept-Encoding without disabling it via q=0. */
+    public static boolean acceptsGzip(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (header == null) {
+            return false;
+        }
+        for (String part : header.split(",")) {
+            String[] tokens = part.trim().split(";");
+            if (tokens[0].trim().equalsIgnoreCase("gzip")) {
+                return tokens.length < 2 || !tokens[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /** Identity and gzip encodings of the full and summary JSON bodies. */
+    public static final class Encoded {
+        // The featured products the bodies were encoded from
+        private final List<Product> featured;
+        private final byte[] fullJson;
+        private final byte[] fullGzip;
+        private final byte[] summaryJson;
+        private final byte[] summaryGzip;
+
+        Encoded(List<Product> featured, byte[] fullJson, byte[] fullGzip, byte[] summaryJson, byte[] summaryGzip) {
+            this.featured = featured;
+            this.fullJson = fullJson;
+            this.fullGzip = fullGzip;
+            this.summaryJson = summaryJson;
+            this.summaryGzip = summaryGzip;
+        }
+
+        public byte[] getJson(boolean summary) {
+            return summary ? summaryJson : fullJson;
+        }
+
+        public byte[] getGzip(boolean summary) {
+            return summary ? summaryGzip : fullGzip;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.model.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends relayed events to a local NDJSON file (one event per line), for batch consumers
+ * such as reporting jobs. Enabled with {@code outbox.file.enabled}.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.file.enabled", havingValue = "true")
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+
+    public FileOutboxSink(@Value("${outbox.file.path:outbox/events.ndjson}") String path, ObjectMapper objectMapper) {
+        this.path = Path.of(path);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (OutboxEvent e : events) {
+                ObjectNode line = objectMapper.createObjectNode()
+                        .put("id", e.getId())
+                        .put("type", e.getEventType())
+                        .put("aggregateType", e.getAggregateType())
+                        .put("aggregateId", e.getAggregateId())
+                        .put("createdAt", e.getCreatedAt().toString());
+                line.set("payload", objectMapper.readTree(e.getPayload()));
+                out.write(objectMapper.writeValueAsString(line));
+                out.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.ecomm.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Optional group commit for checkout writes ({@code checkout.group-commit.enabled}).
+ *
+ * Concurrent callers hand their unit of work to a single writer thread, which collects units
+ * for up to {@code window-ms} or {@code max-batch} units and runs them in one transaction, so
+ * one commit (one WAL flush) covers many orders. Each caller blocks until its own outcome is
+ * known. Every unit is flushed right after it runs; if it throws, the round stops there and
+ * the transaction is rolled back, that caller gets its exception and the remaining units are
+ * retried together. A failure of the commit itself falls back to one transaction per unit.
+ * Units must therefore be safe to re-run, i.e. build all their entities from scratch.
+ *
+ * When disabled, {@link #execute(Supplier)} is a plain transaction on the calling thread.
+ */
+@Service
+public class GroupCommitWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitWriter.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatch;
+
+    private final BlockingQueue<Unit<?>> queue = new ArrayBlockingQueue<>(4096);
+    private Thread writer;
+    private volatile boolean running;
+
+    public GroupCommitWriter(
+            TransactionTemplate transactionTemplate,
+            @Value("${checkout.group-commit.enabled:false}") boolean enabled,
+            @Value("${checkout.group-commit.window-ms:2}") long windowMs,
+            @Value("${checkout.group-commit.max-batch:32}") int maxBatch) {
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxBatch = maxBatch;
+    }
+
+    private static final class Unit<T> {
+        private final Supplier<T> work;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private T value;
+
+        private Unit(Supplier<T> work) {
+            this.work = work;
+        }
+
+        private void run() {
+            value = work.get();
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "checkout-group-commit");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(5000);
+        }
+    }
+
+    /** Runs {@code work} in a transaction — shared with concurrent callers when group commit is enabled. */
+    public <T> T execute(Supplier<T> work) {
+        if (!enabled) {
+            return transactionTemplate.execute(status -> work.get());
+        }
+        Unit<T> unit = new Unit<>(work);
+        if (!queue.offer(unit)) {
+            // Writer is saturated; commit on our own rather than wait for a slot
+            return transactionTemplate.execute(status -> work.get());
+        }
+        try {
+            return unit.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void writeLoop() {
+        List<Unit<?>> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Unit<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    Unit<?> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Group commit writer failed", e);
+                batch.forEach(u -> u.result.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Each round either commits everything left or removes the unit that failed. A failed
+    // statement aborts the whole transaction on PostgreSQL, so a round stops at the first
+    // failure instead of running the remaining units into an unusable transaction.
+    private void commit(List<Unit<?>> units) {
+        List<Unit<?>> pending = new ArrayList<>(units);
+        while (!pending.isEmpty()) {
+            Unit<?>[] failed = new Unit<?>[1];
+            RuntimeException[] failure = new RuntimeException[1];
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (Unit<?> unit : pending) {
+                        try {
+                            unit.run();
+                            // Surface constraint violations here, attributed to the unit that caused them
+                            status.flush();
+                        } catch (RuntimeException e) {
+                            failed[0] = unit;
+                            failure[0] = e;
+                            status.setRollbackOnly();
+                            return;
+                        }
+                    }
+                });
+            } catch (RuntimeException commitFailure) {
+                log.warn("Group commit of {} unit(s) failed, committing one by one: {}",
+                        pending.size(), commitFailure.toString());
+                if (failed[0] != null) {
+                    failed[0].result.completeExceptionally(failure[0]);
+                    pending.remove(failed[0]);
+                }
+                commitIndividually(pending);
+                return;
+            }
+            if (failed[0] == null) {
+                pending.forEach(GroupCommitWriter::complete);
+                return;
+            }
+            failed[0].result.completeExceptionally(failure[0]);
+            pending.remove(failed[0]);
+        }
+    }
+
+    private void commitIndividually(List<Unit<?>> units) {
+        for (Unit<?> unit : units) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> unit.run());
+                complete(unit);
+            } catch (RuntimeException e) {
+                unit.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static <T> void complete(Unit<T> unit) {
+        unit.result.complete(unit.value);
+    }
+}
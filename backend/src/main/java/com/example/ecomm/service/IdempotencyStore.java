@@ -0,0 +1,102 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.model.IdempotencyRecord;
+import com.example.ecomm.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Idempotency keys for checkout: an in-memory LRU in front of the checkout_idempotency_keys table.
+ *
+ * Records are inserted in the same transaction as the order they describe, so a stored
+ * response always matches a committed order; the cache is only filled after commit.
+ * Requests with the same key are serialized by a fixed set of striped locks, so concurrent
+ * retries never run the checkout twice and unrelated keys rarely contend.
+ */
+@Service
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    /** Longest accepted Idempotency-Key header value. */
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private static final int MAX_CACHED = 10_000;
+    private static final int STRIPES = 64;
+
+    private final IdempotencyRecordRepository repository;
+    private final long ttlHours;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    // Access-ordered LinkedHashMap = LRU; guarded by its own monitor
+    private final Map<String, IdempotencyRecord> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+            @Value("${checkout.idempotency.ttl-hours:24}") long ttlHours) {
+        this.repository = repository;
+        this.ttlHours = ttlHours;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /** Lock guarding one (user, key) pair; callers hold it across lookup, checkout and commit. */
+    public ReentrantLock lockFor(Long userId, String key) {
+        return locks[Math.floorMod(IdempotencyRecord.idOf(userId, key).hashCode(), STRIPES)];
+    }
+
+    /** Stored record for this user's key: LRU first, then the table. */
+    public Optional<IdempotencyRecord> find(Long userId, String key) {
+        String id = IdempotencyRecord.idOf(userId, key);
+        synchronized (cache) {
+            IdempotencyRecord cached = cache.get(id);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+        Optional<IdempotencyRecord> stored = repository.findById(id);
+        stored.ifPresent(this::remember);
+        return stored;
+    }
+
+    /** Inserts the record; must run inside the checkout transaction. */
+    public void save(IdempotencyRecord record) {
+        repository.save(record);
+    }
+
+    /** Caches a record once its transaction has committed. */
+    public void remember(IdempotencyRecord record) {
+        synchronized (cache) {
+            cache.put(record.getId(), record);
+        }
+    }
+
+    /** Drops keys older than the TTL from the table and the cache (hourly by default). */
+    @Scheduled(fixedDelayString = "${checkout.idempotency.purge-interval-ms:3600000}", initialDelayString = "300000")
+    public int purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(ttlHours);
+        synchronized (cache) {
+            cache.values().removeIf(r -> r.getCreatedAt().isBefore(cutoff));
+        }
+        int deleted = repository.deleteCreatedBefore(cutoff);
+        if (deleted > 0) {
+            log.info("Purged {} idempotency key(s) older than {}", deleted, cutoff);
+        }
+        return deleted;
+    }
+}
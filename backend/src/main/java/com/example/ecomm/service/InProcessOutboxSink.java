@@ -0,0 +1,26 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.model.OutboxEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Re-publishes relayed events as Spring application events, so in-process consumers can
+ * simply declare {@code @EventListener void on(OutboxEvent event)}.
+ */
+@Component
+public class InProcessOutboxSink implements OutboxSink {
+
+    private final ApplicationEventPublisher publisher;
+
+    public InProcessOutboxSink(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        events.forEach(publisher::publishEvent);
+    }
+}
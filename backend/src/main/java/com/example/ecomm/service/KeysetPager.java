@@ -0,0 +1,94 @@
+package com.example.ecomm.service;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keyset ("seek") pagination over an already ordered list.
+ *
+ * The list must be sorted by a numeric sort key (ascending or descending) with ties broken
+ * by id ascending. A page starts right after the cursor row, found by binary search, so
+ * paging cost does not depend on how deep the client has scrolled and rows inserted or
+ * removed between requests never cause duplicates or skips.
+ */
+public final class KeysetPager {
+
+    public static final int DEFAULT_LIMIT = 24;
+    public static final int MAX_LIMIT = 100;
+
+    private KeysetPager() {
+    }
+
+    /** Clamps a client-supplied page size into [1, MAX_LIMIT]. */
+    public static int clampLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * @param ordered    rows in (sortKey, id) order
+     * @param sortKey    sort key of a row
+     * @param descending whether the sort key is descending
+     * @param id         unique id of a row (tie-breaker, always ascending)
+     * @param after      cursor from the previous page, or null for the first page
+     * @param limit      page size
+     */
+    public static <T> Slice<T> page(List<T> ordered, ToDoubleFunction<T> sortKey, boolean descending,
+                                    ToLongFunction<T> id, PageCursor after, int limit) {
+        int from = 0;
+        if (after != null) {
+            // First index strictly after the cursor position
+            int lo = 0;
+            int hi = ordered.size();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                T row = ordered.get(mid);
+                int c = Double.compare(sortKey.applyAsDouble(row), after.getSortKey());
+                if (descending) {
+                    c = -c;
+                }
+                if (c == 0) {
+                    c = Long.compare(id.applyAsLong(row), after.getId());
+                }
+                if (c <= 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            from = lo;
+        }
+
+        int to = Math.min(from + limit, ordered.size());
+        List<T> items = ordered.subList(from, to);
+
+        String nextCursor = null;
+        if (to < ordered.size() && !items.isEmpty()) {
+            T last = items.get(items.size() - 1);
+            nextCursor = new PageCursor(sortKey.applyAsDouble(last), id.applyAsLong(last)).encode();
+        }
+        return new Slice<>(items, nextCursor);
+    }
+
+    /** One page of rows plus the cursor for the next page (null on the last page). */
+    public static final class Slice<T> {
+        private final List<T> items;
+        private final String nextCursor;
+
+        Slice(List<T> items, String nextCursor) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<T> getItems() {
+            return items;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
+}
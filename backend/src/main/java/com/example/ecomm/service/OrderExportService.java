@@ -0,0 +1,192 @@
+package com.example.ecomm.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Bulk order export as NDJSON (one order per line, lines nested) or CSV (one row per order line).
+ *
+ * Orders and their lines are read as one forward-only stream of scalar rows, ordered by order
+ * id, with a fixed JDBC fetch size. No entities are materialized, so the EAGER item and product
+ * mappings never fire. Only the order currently being written is held in memory, whatever the
+ * size of the export.
+ */
+@Service
+public class OrderExportService {
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    private static final String[] CSV_HEADER = {
+            "order_id", "created_at", "user_id", "status", "amount", "customer_name", "phone_number",
+            "address_line", "city", "postal_code", "item_id", "product_id", "product_name", "quantity", "price"};
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public OrderExportService(
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            @Value("${orders.export.fetch-size:500}") int fetchSize) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes every order created in [from, to) to {@code out}.
+     *
+     * @param format {@link #NDJSON} or {@link #CSV}
+     * @param from   inclusive lower bound on createdAt, or null
+     * @param to     exclusive upper bound on createdAt, or null
+     */
+    public void export(String format, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = rows(from, to)) {
+                    if (CSV.equals(format)) {
+                        writeCsv(rows.iterator(), writer);
+                    } else {
+                        writeNdjson(rows.iterator(), writer);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; let the container see the original error
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    // Row layout: the order columns of CSV_HEADER followed by the item columns (null for orders without lines)
+    private Stream<Object[]> rows(LocalDateTime from, LocalDateTime to) {
+        StringBuilder jpql = new StringBuilder(
+                "select o.id, o.createdAt, o.user.id, o.status, o.amount, o.customerName, o.phoneNumber, "
+                        + "o.addressLine, o.city, o.postalCode, i.id, i.product.id, i.productName, i.quantity, i.price "
+                        + "from Order o left join o.orderItems i where 1 = 1");
+        if (from != null) {
+            jpql.append(" and o.createdAt >= :from");
+        }
+        if (to != null) {
+            jpql.append(" and o.createdAt < :to");
+        }
+        jpql.append(" order by o.id, i.id");
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+        return query.getResultStream();
+    }
+
+    private void writeNdjson(Iterator<Object[]> rows, Writer writer) throws IOException {
+        Map<String, Object> order = null;
+        List<Map<String, Object>> items = null;
+        Object currentId = null;
+        while (rows.hasNext()) {
+            Object[] row = rows.next();
+            if (!row[0].equals(currentId)) {
+                if (order != null) {
+                    writeLine(order, writer);
+                }
+                currentId = row[0];
+                items = new ArrayList<>();
+                order = new LinkedHashMap<>();
+                order.put("id", row[0]);
+                order.put("createdAt", row[1]);
+                order.put("userId", row[2]);
+                order.put("status", row[3]);
+                order.put("amount", row[4]);
+                order.put("customerName", row[5]);
+                order.put("phoneNumber", row[6]);
+                order.put("addressLine", row[7]);
+                order.put("city", row[8]);
+                order.put("postalCode", row[9]);
+                order.put("orderItems", items);
+            }
+            if (row[10] != null) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("id", row[10]);
+                item.put("productId", row[11]);
+                item.put("productName", row[12]);
+                item.put("quantity", row[13]);
+                item.put("price", row[14]);
+                items.add(item);
+            }
+        }
+        if (order != null) {
+            writeLine(order, writer);
+        }
+    }
+
+    private void writeLine(Map<String, Object> order, Writer writer) throws IOException {
+        writer.write(objectMapper.writeValueAsString(order));
+        writer.write('\n');
+    }
+
+    private void writeCsv(Iterator<Object[]> rows, Writer writer) throws IOException {
+        writeCsvRow(CSV_HEADER, writer);
+        while (rows.hasNext()) {
+            writeCsvRow(rows.next(), writer);
+        }
+    }
+
+    private static void writeCsvRow(Object[] values, Writer writer) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180 quoting; values that could be read as spreadsheet formulas are prefixed with a quote
+    static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String s = value.toString();
+        if (value instanceof String && !s.isEmpty() && "=+-@".indexOf(s.charAt(0)) >= 0) {
+            s = "'" + s;
+        }
+        if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0) {
+            return '"' + s.replace("\"", "\"\"") + '"';
+        }
+        return s;
+    }
+}
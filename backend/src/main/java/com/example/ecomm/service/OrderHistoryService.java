@@ -0,0 +1,119 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.dto.OrderItemSummaryDTO;
+import com.example.ecomm.dto.OrderPage;
+import com.example.ecomm.dto.OrderSummaryDTO;
+import com.example.ecomm.model.Product;
+import com.example.ecomm.model.User;
+import com.example.ecomm.repository.OrderItemRepository;
+import com.example.ecomm.repository.OrderRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Order history for /api/orders/me, read as DTO projections.
+ *
+ * A page costs two queries whatever its size: one for the orders and one for all of their
+ * lines. No Order, OrderItem or Product entity is loaded, so the EAGER item and product
+ * mappings never fire. A fetch join is deliberately not used, since paging a collection
+ * fetch join makes Hibernate apply the limit in memory over the whole history.
+ *
+ * Pages are keyset-paged on (createdAt, id) descending; the cursor carries createdAt as
+ * epoch microseconds, the precision of the timestamp column. Legacy orders without a
+ * createdAt sort (and page) as if placed at the epoch, after every dated order.
+ */
+@Service
+public class OrderHistoryService {
+
+    // Upper bound for one IN list when the unpaged history is requested
+    private static final int ID_CHUNK = 500;
+
+    // Sort key of orders written before createdAt was always set
+    private static final LocalDateTime UNDATED = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final CatalogSnapshotService catalog;
+
+    public OrderHistoryService(OrderRepository orderRepository,
+                               OrderItemRepository orderItemRepository,
+                               CatalogSnapshotService catalog) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.catalog = catalog;
+    }
+
+    /** The whole history, newest first. */
+    @Transactional(readOnly = true)
+    public List<OrderSummaryDTO> all(User user) {
+        return withItems(orderRepository.findHistory(user, UNDATED, Pageable.unpaged()));
+    }
+
+    /** One page of the history, newest first, starting after {@code cursor} (null for the first page). */
+    @Transactional(readOnly = true)
+    public OrderPage page(User user, PageCursor cursor, int limit) {
+        // One extra row tells whether a next page exists without a count query
+        Pageable fetch = PageRequest.of(0, limit + 1);
+        List<OrderSummaryDTO> rows = cursor == null
+                ? orderRepository.findHistory(user, UNDATED, fetch)
+                : orderRepository.findHistoryAfter(user, UNDATED, fromMicros(cursor.getSortKey()), cursor.getId(), fetch);
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            OrderSummaryDTO last = rows.get(limit - 1);
+            LocalDateTime sortedAt = last.getCreatedAt() == null ? UNDATED : last.getCreatedAt();
+            nextCursor = new PageCursor(toMicros(sortedAt), last.getId()).encode();
+        }
+        return new OrderPage(withItems(rows), nextCursor);
+    }
+
+    private List<OrderSummaryDTO> withItems(List<OrderSummaryDTO> orders) {
+        Map<Long, OrderSummaryDTO> byId = new LinkedHashMap<>();
+        for (OrderSummaryDTO order : orders) {
+            byId.put(order.getId(), order);
+        }
+        List<Long> ids = List.copyOf(byId.keySet());
+        CatalogSnapshot snapshot = catalog.current();
+        for (int from = 0; from < ids.size(); from += ID_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + ID_CHUNK, ids.size()));
+            for (OrderItemSummaryDTO item : orderItemRepository.findSummariesByOrderIds(chunk)) {
+                fillFromCatalog(item, snapshot);
+                byId.get(item.getOrderId()).getOrderItems().add(item);
+            }
+        }
+        return orders;
+    }
+
+    // Lines written before name/image snapshotting existed fall back to the current catalog entry
+    private static void fillFromCatalog(OrderItemSummaryDTO item, CatalogSnapshot snapshot) {
+        if (item.getProductName() != null || item.getProductId() == null) {
+            return;
+        }
+        Product product = snapshot.findById(item.getProductId());
+        if (product != null) {
+            item.setProductName(product.getName());
+            if (item.getProductImageUrl() == null) {
+                item.setProductImageUrl(product.getImageUrl());
+            }
+        }
+    }
+
+    private static double toMicros(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + t.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(double micros) {
+        long m = (long) micros;
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(m, 1_000_000L),
+                (int) Math.floorMod(m, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.ecomm.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the monthly partitions of items_order and order_item in shape (PostgreSQL only, after
+ * database/partitioning/001_partition_orders_by_month.sql has been applied).
+ *
+ * Every run creates the partitions for the coming months, so inserts never fall into the
+ * default partition. With {@code orders.archive.enabled}, months older than
+ * {@code orders.archive.after-months} are exported to gzipped CSV files, then detached and
+ * dropped — whole tables go away instead of row-by-row deletes, so there is nothing to vacuum.
+ * Payments and user_order_stats are not touched; lifetime aggregates keep archived orders.
+ */
+@Service
+@ConditionalOnProperty(name = "orders.partitioning.enabled", havingValue = "true")
+public class OrderPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderPartitionMaintenance.class);
+
+    // Lines first: an order partition cannot be detached while lines still reference it
+    private static final List<String> TABLES = List.of("order_item", "items_order");
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final boolean archiveEnabled;
+    private final int archiveAfterMonths;
+    private final Path archivePath;
+    private final int fetchSize;
+
+    public OrderPartitionMaintenance(
+            JdbcTemplate jdbcTemplate,
+            DataSource dataSource,
+            TransactionTemplate transactionTemplate,
+            @Value("${orders.partitioning.months-ahead:3}") int monthsAhead,
+            @Value("${orders.archive.enabled:false}") boolean archiveEnabled,
+            @Value("${orders.archive.after-months:24}") int archiveAfterMonths,
+            @Value("${orders.archive.path:archive/orders}") String archivePath,
+            @Value("${orders.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.transactionTemplate = transactionTemplate;
+        this.monthsAhead = monthsAhead;
+        this.archiveEnabled = archiveEnabled;
+        this.archiveAfterMonths = archiveAfterMonths;
+        this.archivePath = Path.of(archivePath);
+        this.fetchSize = fetchSize;
+    }
+
+    /** Daily by default; the first run shortly after startup. */
+    @Scheduled(fixedDelayString = "${orders.partitioning.interval-ms:86400000}", initialDelayString = "120000")
+    public void maintain() {
+        if (!partitioned()) {
+            log.warn("orders.partitioning.enabled is set, but items_order/order_item are not partitioned; "
+                    + "apply database/partitioning/001_partition_orders_by_month.sql first");
+            return;
+        }
+        YearMonth now = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartitions(now.plusMonths(i));
+        }
+        if (archiveEnabled) {
+            YearMonth oldestKept = now.minusMonths(archiveAfterMonths);
+            for (YearMonth month : partitionMonths()) {
+                if (month.isBefore(oldestKept)) {
+                    archive(month);
+                }
+            }
+        }
+    }
+
+    private boolean partitioned() {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                return false;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not inspect the database", e);
+        }
+        Integer n = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid"
+                        + " WHERE c.relname IN ('items_order', 'order_item')",
+                Integer.class);
+        return n != null && n == TABLES.size();
+    }
+
+    private void createPartitions(YearMonth month) {
+        for (String table : TABLES) {
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(table, month)
+                        + " PARTITION OF " + table + " FOR VALUES FROM ('" + month.atDay(1)
+                        + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+            } catch (DataAccessException e) {
+                // Typically rows for that month already sit in the default partition
+                log.warn("Could not create partition {}: {}", partitionName(table, month), e.getMessage());
+            }
+        }
+    }
+
+    // Months that have an order partition named by our convention
+    private TreeSet<YearMonth> partitionMonths() {
+        Pattern pattern = Pattern.compile("^items_order_p(\\d{6})$");
+        TreeSet<YearMonth> months = new TreeSet<>();
+        for (String name : jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid"
+                        + " JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = 'items_order'",
+                String.class)) {
+            Matcher m = pattern.matcher(name);
+            if (m.matches()) {
+                months.add(YearMonth.parse(m.group(1), SUFFIX));
+            }
+        }
+        return months;
+    }
+
+    // Both files are written completely before anything is detached; a failed export leaves the month in place
+    private void archive(YearMonth month) {
+        try {
+            Files.createDirectories(archivePath);
+            for (String table : TABLES) {
+                export(partitionName(table, month));
+            }
+        } catch (IOException | SQLException e) {
+            log.error("Archiving orders of {} failed; partitions kept", month, e);
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String table : TABLES) {
+                String partition = partitionName(table, month);
+                jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+                jdbcTemplate.execute("DROP TABLE " + partition);
+            }
+        });
+        log.info("Archived orders of {} to {}", month, archivePath.toAbsolutePath());
+    }
+
+    private void export(String partition) throws IOException, SQLException {
+        Path target = archivePath.resolve(partition + ".csv.gz");
+        Path tmp = archivePath.resolve(partition + ".csv.gz.tmp");
+        try (Connection connection = dataSource.getConnection()) {
+            // A cursor-backed, forward-only read needs a transaction on PostgreSQL
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement("SELECT * FROM " + partition + " ORDER BY id");
+                 Writer out = new BufferedWriter(new OutputStreamWriter(
+                         new GZIPOutputStream(Files.newOutputStream(tmp)), StandardCharsets.UTF_8))) {
+                statement.setFetchSize(fetchSize);
+                try (ResultSet rs = statement.executeQuery()) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    String[] header = new String[meta.getColumnCount()];
+                    for (int i = 0; i < header.length; i++) {
+                        header[i] = meta.getColumnName(i + 1);
+                    }
+                    writeRow(header, out);
+                    String[] row = new String[header.length];
+                    while (rs.next()) {
+                        for (int i = 0; i < row.length; i++) {
+                            row[i] = rs.getString(i + 1);
+                        }
+                        writeRow(row, out);
+                    }
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // RFC 4180, values unchanged (unlike the admin export, archives are not meant for spreadsheets)
+    private static void writeRow(String[] values, Writer out) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String v = values[i];
+            if (v != null) {
+                boolean quote = v.indexOf(',') >= 0 || v.indexOf('"') >= 0 || v.indexOf('\n') >= 0 || v.indexOf('\r') >= 0;
+                out.write(quote ? '"' + v.replace("\"", "\"\"") + '"' : v);
+            }
+        }
+        out.write("\r\n");
+    }
+
+    static String partitionName(String table, YearMonth month) {
+        return table + "_p" + month.format(SUFFIX);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.dto.CheckoutItemDTO;
+import com.example.ecomm.dto.CheckoutRequest;
+import com.example.ecomm.repository.ProductRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Prices checkout requests on the server from the catalog's {@link PriceTable}.
+ *
+ * Each line must reference a priced product and, if the client sent a unit price, match it;
+ * the order amount must equal the sum of the lines. All arithmetic is in kuruş and lookups are
+ * in memory. Only a line the snapshot cannot price as asked — a product added since the last
+ * refresh, or a client price that differs — costs one primary-key read of the current price.
+ *
+ * A price edited in the database is therefore charged as soon as the client shows it; a line
+ * without a price, or still at the old one, is charged the old price until the next snapshot
+ * refresh ({@code catalog.refresh-interval-ms}) or a {@link CatalogSnapshotService#refresh()}.
+ */
+@Service
+public class OrderPricing {
+
+    private final CatalogSnapshotService catalog;
+    private final ProductRepository productRepository;
+
+    public OrderPricing(CatalogSnapshotService catalog, ProductRepository productRepository) {
+        this.catalog = catalog;
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Fills in the current unit price of lines that have none and verifies the client's prices
+     * and amount against the catalog.
+     *
+     * @throws ResponseStatusException 400 on an unknown product or any price mismatch
+     */
+    public void applyPrices(CheckoutRequest request) {
+        PriceTable table = catalog.current().priceTable();
+        long total = 0;
+        if (request.getItems() != null) {
+            for (CheckoutItemDTO item : request.getItems()) {
+                Long productId = item.getProductId();
+                long unit = productId == null ? PriceTable.NO_PRICE : table.unitPrice(productId);
+                Long sent = item.getPrice() == null ? null : PriceTable.toMinor(item.getPrice());
+                if (productId != null && (unit == PriceTable.NO_PRICE || (sent != null && sent != unit))) {
+                    // The snapshot may be behind the database
+                    unit = productRepository.findPriceById(productId).map(PriceTable::toMinor).orElse(PriceTable.NO_PRICE);
+                }
+                if (unit == PriceTable.NO_PRICE) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Product " + productId + " is not available");
+                }
+                if (sent == null) {
+                    item.setPrice(unit / 100.0);
+                } else if (sent != unit) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Price of product " + productId + " has changed");
+                }
+                total += unit * item.getQuantity();
+            }
+        }
+        if (PriceTable.toMinor(request.getAmount()) != total) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Order amount does not match current prices");
+        }
+    }
+}
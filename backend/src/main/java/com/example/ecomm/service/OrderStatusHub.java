@@ -0,0 +1,249 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.model.Order;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process fan-out of order status changes to Server-Sent Events subscribers
+ * (GET /api/orders/me/stream).
+ *
+ * Writers call {@link #publishAfterCommit} where they change Order.status; the event is
+ * delivered only once the transaction has committed. Each connection is an async
+ * {@link SseEmitter}, so no servlet thread is held while it is open. Events go into a small
+ * bounded buffer per connection and are written by sender threads, at most one per connection
+ * at a time. A write blocks while the client's TCP window is full, so the sender pool grows
+ * beyond {@code orders.stream.senders} instead of letting stalled connections hold up the
+ * rest. A connection whose buffer overflows, or whose write has been blocked for longer than
+ * {@code orders.stream.send-timeout-ms}, is closed — the client reconnects and re-reads its
+ * order history — so one slow reader can never hold up checkout or other subscribers.
+ */
+@Service
+public class OrderStatusHub {
+
+    public static final String STATUS_EVENT = "order-status";
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusHub.class);
+
+    // A user with many open tabs: the oldest connection is closed beyond this
+    private static final int MAX_CONNECTIONS_PER_USER = 5;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final long timeoutMs;
+    private final int bufferSize;
+    private final int senders;
+    private final long sendTimeoutNanos;
+
+    private ExecutorService executor;
+
+    public OrderStatusHub(
+            @Value("${orders.stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${orders.stream.buffer-size:32}") int bufferSize,
+            @Value("${orders.stream.senders:2}") int senders,
+            @Value("${orders.stream.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.timeoutMs = timeoutMs;
+        this.bufferSize = bufferSize;
+        this.senders = senders;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+    }
+
+    @PostConstruct
+    void start() {
+        AtomicInteger n = new AtomicInteger();
+        // Core threads stay; more are started only while every sender is blocked in a write
+        executor = new ThreadPoolExecutor(senders, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), r -> {
+                    Thread t = new Thread(r, "order-stream-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        subscribers.values().forEach(set -> set.forEach(s -> s.emitter.complete()));
+        subscribers.clear();
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /** Opens a stream of status changes for the user's orders. */
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = newEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(userId, emitter, bufferSize);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        Set<Subscriber> own = subscribers.compute(userId, (id, set) -> {
+            Set<Subscriber> result = set != null ? set : ConcurrentHashMap.newKeySet();
+            result.add(subscriber);
+            return result;
+        });
+        if (own.size() > MAX_CONNECTIONS_PER_USER) {
+            own.stream().min(Comparator.comparingLong(s -> s.sequence)).ifPresent(oldest -> {
+                remove(oldest);
+                oldest.emitter.complete();
+            });
+        }
+
+        // Flushes the response headers right away, so the client knows the stream is open
+        enqueue(subscriber, SseEmitter.event().comment("connected"));
+        return emitter;
+    }
+
+    /**
+     * Announces the order's current status to its owner's open streams once the current
+     * transaction commits (immediately if there is none). Nothing happens on rollback.
+     */
+    public void publishAfterCommit(Order order) {
+        // getUser() is a lazy proxy; reading its id does not load the user
+        Long userId = order.getUser() != null ? order.getUser().getId() : null;
+        Long orderId = order.getId();
+        String status = order.getStatus();
+        if (userId == null || !subscribers.containsKey(userId)) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(userId, orderId, status);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(userId, orderId, status);
+            }
+        });
+    }
+
+    // Overridden in tests to stand in for clients that stop reading
+    SseEmitter newEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    /** Number of open streams; for tests and diagnostics. */
+    public int connectionCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void publish(Long userId, Long orderId, String status) {
+        Set<Subscriber> own = subscribers.get(userId);
+        if (own == null) {
+            return;
+        }
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("orderId", orderId);
+        data.put("status", status);
+        for (Subscriber subscriber : own) {
+            enqueue(subscriber, SseEmitter.event().name(STATUS_EVENT).data(data, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    // Keeps idle connections open through proxies and detects clients that went away or stopped reading
+    @Scheduled(fixedDelayString = "${orders.stream.heartbeat-ms:15000}", initialDelayString = "${orders.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        for (Set<Subscriber> own : subscribers.values()) {
+            for (Subscriber subscriber : own) {
+                long sendingSince = subscriber.sendingSince;
+                if (sendingSince != 0 && now - sendingSince > sendTimeoutNanos) {
+                    close(subscriber, "is blocked in a write");
+                } else {
+                    enqueue(subscriber, SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (!subscriber.buffer.offer(event)) {
+            close(subscriber, "is not keeping up");
+            return;
+        }
+        // At most one sender drains a connection at a time, which keeps its events in order
+        if (subscriber.draining.compareAndSet(false, true)) {
+            executor.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscriber.buffer.poll()) != null) {
+                subscriber.sendingSince = System.nanoTime();
+                try {
+                    subscriber.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // Client disconnected or the emitter already completed
+                    remove(subscriber);
+                    subscriber.buffer.clear();
+                } finally {
+                    subscriber.sendingSince = 0;
+                }
+            }
+            subscriber.draining.set(false);
+            // An event enqueued after the last poll but before the flag was cleared would otherwise be stranded
+            if (subscriber.buffer.isEmpty() || !subscriber.draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    // Completing the emitter also ends a write that is still blocked on the connection
+    private void close(Subscriber subscriber, String reason) {
+        log.debug("Order stream of user {} {}; closing it", subscriber.userId, reason);
+        remove(subscriber);
+        subscriber.buffer.clear();
+        subscriber.emitter.complete();
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, own) -> {
+            own.remove(subscriber);
+            return own.isEmpty() ? null : own;
+        });
+    }
+
+    private static final class Subscriber {
+        private static final AtomicLong SEQUENCE = new AtomicLong();
+
+        private final long sequence = SEQUENCE.incrementAndGet();
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // System.nanoTime() when the current write started, 0 while not writing
+        private volatile long sendingSince;
+
+        private Subscriber(Long userId, SseEmitter emitter, int bufferSize) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.model.Order;
+import com.example.ecomm.model.OrderItem;
+import com.example.ecomm.model.OutboxEvent;
+import com.example.ecomm.model.Payment;
+import com.example.ecomm.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.LockMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transactional outbox for order and payment events.
+ *
+ * {@link #record} adds an event in the caller's transaction, so an event exists exactly when
+ * the change it describes was committed. {@link #relay()} drains unpublished events in
+ * batches — rows are locked with SKIP LOCKED, so several instances can relay concurrently —
+ * hands them to every {@link OutboxSink} and marks them published in the same transaction.
+ */
+@Service
+public class OutboxService {
+
+    public static final String ORDER = "order";
+    public static final String PAYMENT = "payment";
+
+    public static final String ORDER_PLACED = "OrderPlaced";
+    public static final String ORDER_ACCEPTED = "OrderAccepted";
+    public static final String ORDER_FAILED = "OrderFailed";
+    public static final String PAYMENT_RECORDED = "PaymentRecorded";
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxService.class);
+
+    /** Upper bound on batches per relay run, so one run cannot monopolize the scheduler thread. */
+    private static final int MAX_BATCHES_PER_RUN = 20;
+
+    private final OutboxEventRepository repository;
+    private final List<OutboxSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final DataSource dataSource;
+    private final int batchSize;
+    private final long retentionHours;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // SKIP LOCKED is PostgreSQL-only here (the H2 used by tests does not support it)
+    private boolean skipLocked;
+
+    public OutboxService(
+            OutboxEventRepository repository,
+            List<OutboxSink> sinks,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            DataSource dataSource,
+            @Value("${outbox.relay.batch-size:100}") int batchSize,
+            @Value("${outbox.retention-hours:168}") long retentionHours) {
+        this.repository = repository;
+        this.sinks = sinks;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.dataSource = dataSource;
+        this.batchSize = batchSize;
+        this.retentionHours = retentionHours;
+    }
+
+    @PostConstruct
+    void detectSkipLocked() {
+        try (Connection connection = dataSource.getConnection()) {
+            skipLocked = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not inspect the database", e);
+        }
+    }
+
+    /** Adds an event to the current transaction (there must be one). */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String aggregateType, Long aggregateId, String eventType, Map<String, Object> payload) {
+        try {
+            repository.save(new OutboxEvent(aggregateType, aggregateId, eventType,
+                    objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + eventType + " event", e);
+        }
+    }
+
+    /** Event body describing an order and its lines. */
+    public static Map<String, Object> orderPayload(Order order) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (OrderItem item : order.getOrderItems()) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("productId", item.getProduct() != null ? item.getProduct().getId() : null);
+            line.put("quantity", item.getQuantity());
+            line.put("price", item.getPrice());
+            items.add(line);
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("userId", order.getUser() != null ? order.getUser().getId() : null);
+        payload.put("status", order.getStatus());
+        payload.put("amount", order.getAmount());
+        payload.put("createdAt", String.valueOf(order.getCreatedAt()));
+        payload.put("items", items);
+        return payload;
+    }
+
+    /** Event body describing a recorded payment. */
+    public static Map<String, Object> paymentPayload(Payment payment) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("paymentId", payment.getId());
+        payload.put("orderId", payment.getOrderId());
+        payload.put("status", payment.getStatus());
+        payload.put("amount", payment.getAmount());
+        payload.put("paidAt", String.valueOf(payment.getPaidAt()));
+        return payload;
+    }
+
+    /**
+     * Publishes pending events, one transaction per batch.
+     *
+     * @return number of events published
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:1000}", initialDelayString = "10000")
+    public int relay() {
+        int published = 0;
+        for (int i = 0; i < MAX_BATCHES_PER_RUN; i++) {
+            Integer n;
+            try {
+                n = transactionTemplate.execute(status -> relayBatch());
+            } catch (RuntimeException e) {
+                log.warn("Outbox relay failed, batch will be retried: {}", e.toString());
+                break;
+            }
+            published += n;
+            if (n < batchSize) {
+                break;
+            }
+        }
+        return published;
+    }
+
+    private int relayBatch() {
+        TypedQuery<OutboxEvent> query = entityManager
+                .createQuery("select e from OutboxEvent e where e.publishedAt is null order by e.id", OutboxEvent.class)
+                .setMaxResults(batchSize)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        if (skipLocked) {
+            // Rendered as FOR UPDATE SKIP LOCKED: concurrent relays take disjoint batches instead of waiting
+            query.unwrap(org.hibernate.query.Query.class).setHibernateLockMode(LockMode.UPGRADE_SKIPLOCKED);
+        }
+        List<OutboxEvent> batch = query.getResultList();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        for (OutboxSink sink : sinks) {
+            try {
+                sink.publish(batch);
+            } catch (Exception e) {
+                throw new IllegalStateException("Outbox sink " + sink.getClass().getSimpleName() + " failed", e);
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        batch.forEach(e -> e.setPublishedAt(now));
+        return batch.size();
+    }
+
+    /** Removes published events past the retention period. */
+    @Scheduled(fixedDelayString = "3600000", initialDelayString = "600000")
+    public int purgePublished() {
+        return repository.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours));
+    }
+}
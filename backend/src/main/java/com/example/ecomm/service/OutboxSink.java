@@ -0,0 +1,15 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination for relayed outbox events. Delivery is at-least-once: if any sink throws,
+ * the batch stays unpublished and is offered again, so sinks should tolerate duplicates
+ * (the event id is stable).
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxEvent> events) throws Exception;
+}
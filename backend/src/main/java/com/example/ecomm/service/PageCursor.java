@@ -0,0 +1,60 @@
+package com.example.ecomm.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the sort key and id of the last row a client has seen.
+ * Clients get it back as {@code nextCursor} and pass it unchanged as {@code cursor}.
+ *
+ * The sort key is carried as raw double bits so a cursor always seeks to exactly the
+ * same position, independent of decimal formatting.
+ */
+public final class PageCursor {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final double sortKey;
+    private final long id;
+
+    public PageCursor(double sortKey, long id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    public double getSortKey() {
+        return sortKey;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = Long.toHexString(Double.doubleToLongBits(sortKey)) + ":" + Long.toHexString(id);
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the decoded cursor, or null when no cursor was supplied
+     * @throws ResponseStatusException 400 if the cursor was not produced by {@link #encode()}
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            double key = Double.longBitsToDouble(Long.parseUnsignedLong(raw.substring(0, sep), 16));
+            long id = Long.parseUnsignedLong(raw.substring(sep + 1), 16);
+            return new PageCursor(key, id);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
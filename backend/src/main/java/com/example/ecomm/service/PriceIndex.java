@@ -0,0 +1,127 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.model.Product;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Products sorted by (price, id) in parallel primitive arrays.
+ *
+ * A price range is two binary searches over {@code prices}; sorting a filtered listing by
+ * price is a single walk over the pre-sorted arrays, keeping the positions present in the
+ * candidate bitmap. Products without a price sort as the most expensive and never match a
+ * bounded range.
+ */
+public final class PriceIndex {
+
+    // Parallel arrays, sorted by price ascending then id ascending; ordinals are snapshot positions
+    private final double[] prices;
+    private final int[] ordinals;
+
+    private PriceIndex(double[] prices, int[] ordinals) {
+        this.prices = prices;
+        this.ordinals = ordinals;
+    }
+
+    /** Builds the index; ordinal i refers to products.get(i). */
+    static PriceIndex build(List<Product> products) {
+        Integer[] order = new Integer[products.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator
+                .<Integer>comparingDouble(i -> priceOf(products.get(i)))
+                .thenComparingLong(i -> products.get(i).getId()));
+
+        double[] prices = new double[order.length];
+        int[] ordinals = new int[order.length];
+        for (int k = 0; k < order.length; k++) {
+            prices[k] = priceOf(products.get(order[k]));
+            ordinals[k] = order[k];
+        }
+        return new PriceIndex(prices, ordinals);
+    }
+
+    /** Sort key used by the index and by price cursors; a missing price sorts above every real price. */
+    public static double priceOf(Product p) {
+        return p.getPrice() == null ? Double.POSITIVE_INFINITY : p.getPrice();
+    }
+
+    /** Snapshot positions of products with minPrice &lt;= price &lt;= maxPrice (null bound = open). */
+    public BitSet range(Double minPrice, Double maxPrice) {
+        int from = minPrice == null ? 0 : firstIndexAtLeast(minPrice);
+        int to = maxPrice == null ? prices.length : firstIndexAbove(maxPrice);
+
+        BitSet bits = new BitSet();
+        for (int k = from; k < to; k++) {
+            if (prices[k] != Double.POSITIVE_INFINITY) {
+                bits.set(ordinals[k]);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Snapshot positions of {@code members}, ordered by price. Ties always keep id ascending
+     * (also for descending price) so the order stays compatible with {@link KeysetPager}.
+     */
+    public int[] ordered(BitSet members, boolean descending) {
+        int[] out = new int[members.cardinality()];
+        int n = 0;
+        if (!descending) {
+            for (int k = 0; k < ordinals.length; k++) {
+                if (members.get(ordinals[k])) {
+                    out[n++] = ordinals[k];
+                }
+            }
+            return out;
+        }
+
+        // Walk equal-price runs from the most expensive down, emitting each run in id order
+        int end = prices.length;
+        while (end > 0) {
+            int start = end - 1;
+            while (start > 0 && Double.compare(prices[start - 1], prices[end - 1]) == 0) {
+                start--;
+            }
+            for (int k = start; k < end; k++) {
+                if (members.get(ordinals[k])) {
+                    out[n++] = ordinals[k];
+                }
+            }
+            end = start;
+        }
+        return out;
+    }
+
+    private int firstIndexAtLeast(double price) {
+        int lo = 0;
+        int hi = prices.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (prices[mid] < price) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int firstIndexAbove(double price) {
+        int lo = 0;
+        int hi = prices.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (prices[mid] <= price) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.model.Product;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Current unit prices keyed by product id, in integer minor units (kuruş).
+ *
+ * Parallel primitive arrays sorted by id: a lookup is one binary search, with no boxing and
+ * no DB access. Built with every {@link CatalogSnapshot}, so {@link #getVersion()} is the
+ * catalog version the prices were taken from.
+ */
+public final class PriceTable {
+
+    /** Returned by {@link #unitPrice(long)} for unknown or unpriced products. */
+    public static final long NO_PRICE = -1;
+
+    private final long version;
+    private final long[] ids;
+    private final long[] prices;
+
+    private PriceTable(long version, long[] ids, long[] prices) {
+        this.version = version;
+        this.ids = ids;
+        this.prices = prices;
+    }
+
+    /** @param productsById products sorted by id ascending (the snapshot order) */
+    static PriceTable build(long version, List<Product> productsById) {
+        long[] ids = new long[productsById.size()];
+        long[] prices = new long[productsById.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Product p = productsById.get(i);
+            ids[i] = p.getId();
+            prices[i] = p.getPrice() == null ? NO_PRICE : toMinor(p.getPrice());
+        }
+        return new PriceTable(version, ids, prices);
+    }
+
+    /** Rounds an amount in lira to kuruş. */
+    public static long toMinor(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /** Unit price in kuruş, or {@link #NO_PRICE}. */
+    public long unitPrice(long productId) {
+        int i = Arrays.binarySearch(ids, productId);
+        return i >= 0 ? prices[i] : NO_PRICE;
+    }
+}
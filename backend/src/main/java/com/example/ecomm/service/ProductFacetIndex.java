@@ -0,0 +1,160 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.model.Product;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bitmap index over {@code Product.attributes}: one {@link BitSet} of snapshot ordinals per
+ * (attribute, value) pair.
+ *
+ * Filtering is OR across the values of one attribute and AND across attributes, i.e. plain
+ * bitmap unions and intersections. Facet counts are disjunctive: the counts for an attribute
+ * ignore that attribute's own filter, so shoppers still see the alternatives they can switch to.
+ * Keys and values are matched case-insensitively.
+ */
+public final class ProductFacetIndex {
+
+    private final int size;
+
+    // lowercase attribute key → facet
+    private final Map<String, Facet> facets;
+
+    private ProductFacetIndex(int size, Map<String, Facet> facets) {
+        this.size = size;
+        this.facets = facets;
+    }
+
+    /** Builds the index; bit i corresponds to products.get(i). */
+    static ProductFacetIndex build(List<Product> products) {
+        Map<String, Facet> facets = new TreeMap<>();
+        for (int ord = 0; ord < products.size(); ord++) {
+            Map<String, Object> attributes = products.get(ord).getAttributes();
+            if (attributes == null) {
+                continue;
+            }
+            for (Map.Entry<String, Object> e : attributes.entrySet()) {
+                if (e.getKey() == null) {
+                    continue;
+                }
+                Facet facet = facets.computeIfAbsent(normalize(e.getKey()), k -> new Facet(e.getKey()));
+                if (e.getValue() instanceof Collection<?> values) {
+                    for (Object v : values) {
+                        facet.add(v, ord);
+                    }
+                } else {
+                    facet.add(e.getValue(), ord);
+                }
+            }
+        }
+        return new ProductFacetIndex(products.size(), Collections.unmodifiableMap(facets));
+    }
+
+    /** Whether any product has this attribute, i.e. whether a request parameter is an attribute filter. */
+    public boolean hasAttribute(String key) {
+        return key != null && facets.containsKey(normalize(key));
+    }
+
+    /**
+     * Products matching every filter.
+     *
+     * @param filters attribute key → accepted values
+     */
+    public BitSet matching(Map<String, List<String>> filters) {
+        return matchingExcept(filters, null);
+    }
+
+    private BitSet matchingExcept(Map<String, List<String>> filters, String skipKey) {
+        BitSet result = new BitSet(size);
+        result.set(0, size);
+        for (Map.Entry<String, List<String>> filter : filters.entrySet()) {
+            String key = normalize(filter.getKey());
+            if (key.equals(skipKey)) {
+                continue;
+            }
+            Facet facet = facets.get(key);
+            BitSet union = new BitSet(size);
+            if (facet != null) {
+                for (String value : filter.getValue()) {
+                    FacetValue fv = facet.values.get(normalize(value));
+                    if (fv != null) {
+                        union.or(fv.bits);
+                    }
+                }
+            }
+            result.and(union);
+        }
+        return result;
+    }
+
+    /**
+     * Facet counts for every attribute, restricted to {@code base} and the active filters.
+     * Values with a zero count are omitted; values are listed by count descending.
+     *
+     * @return attribute name → (value → number of matching products)
+     */
+    public Map<String, Map<String, Integer>> counts(BitSet base, Map<String, List<String>> filters) {
+        Map<String, Map<String, Integer>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Facet> e : facets.entrySet()) {
+            BitSet candidates = matchingExcept(filters, e.getKey());
+            candidates.and(base);
+
+            Map<String, Integer> counts = new TreeMap<>();
+            for (FacetValue fv : e.getValue().values.values()) {
+                BitSet hit = (BitSet) fv.bits.clone();
+                hit.and(candidates);
+                int count = hit.cardinality();
+                if (count > 0) {
+                    counts.put(fv.display, count);
+                }
+            }
+            if (!counts.isEmpty()) {
+                Map<String, Integer> ordered = new LinkedHashMap<>();
+                counts.entrySet().stream()
+                        .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                        .forEach(c -> ordered.put(c.getKey(), c.getValue()));
+                result.put(e.getValue().name, ordered);
+            }
+        }
+        return result;
+    }
+
+    private static String normalize(String s) {
+        return s.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Facet {
+        private final String name;
+        private final Map<String, FacetValue> values = new TreeMap<>();
+
+        private Facet(String name) {
+            this.name = name;
+        }
+
+        private void add(Object value, int ord) {
+            if (value == null || value instanceof Map) {
+                return;
+            }
+            String display = String.valueOf(value).trim();
+            if (!display.isEmpty()) {
+                values.computeIfAbsent(normalize(display), k -> new FacetValue(display)).bits.set(ord);
+            }
+        }
+    }
+
+    private static final class FacetValue {
+        private final String display;
+        private final BitSet bits = new BitSet();
+
+        private FacetValue(String display) {
+            this.display = display;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.model.Product;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable inverted index over product name, description and attribute values.
+ *
+ * Every query term is matched as a prefix against the sorted term dictionary, all terms
+ * must match (AND), and hits are ranked by a field-weighted tf-idf score. One index is
+ * built per {@link CatalogSnapshot}; documents whose content did not change since the
+ * previous index reuse their tokenized form, so a reload only re-tokenizes changed products.
+ */
+public final class ProductSearchIndex {
+
+    // Field weights: a hit in the name matters most, then attributes (skin_type, shade...), then description
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float ATTRIBUTE_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    /** A term that only matches as a prefix ("pal" → "palette") scores lower than an exact token. */
+    private static final float PREFIX_PENALTY = 0.6f;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final List<Product> docs;
+    private final Map<Long, TokenizedDoc> tokenized;
+
+    // Sorted term dictionary with parallel posting lists (doc ordinals + precomputed weights)
+    private final String[] terms;
+    private final int[][] postingDocs;
+    private final float[][] postingWeights;
+
+    private ProductSearchIndex(List<Product> docs, Map<Long, TokenizedDoc> tokenized) {
+        this.docs = docs;
+        this.tokenized = tokenized;
+
+        // term → (doc ordinal → weight), TreeMap keeps the dictionary sorted for prefix scans
+        TreeMap<String, Map<Integer, Float>> inverted = new TreeMap<>();
+        for (int ord = 0; ord < docs.size(); ord++) {
+            TokenizedDoc doc = tokenized.get(docs.get(ord).getId());
+            for (Map.Entry<String, Float> e : doc.termWeights.entrySet()) {
+                inverted.computeIfAbsent(e.getKey(), k -> new HashMap<>()).put(ord, e.getValue());
+            }
+        }
+
+        int n = Math.max(docs.size(), 1);
+        this.terms = new String[inverted.size()];
+        this.postingDocs = new int[inverted.size()][];
+        this.postingWeights = new float[inverted.size()][];
+
+        int t = 0;
+        for (Map.Entry<String, Map<Integer, Float>> e : inverted.entrySet()) {
+            Map<Integer, Float> postings = e.getValue();
+            float idf = (float) Math.log(1.0 + (double) n / postings.size());
+
+            int[] ords = postings.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            float[] weights = new float[ords.length];
+            for (int i = 0; i < ords.length; i++) {
+                weights[i] = postings.get(ords[i]) * idf;
+            }
+
+            terms[t] = e.getKey();
+            postingDocs[t] = ords;
+            postingWeights[t] = weights;
+            t++;
+        }
+    }
+
+    /**
+     * Builds an index over the given products (in snapshot order).
+     *
+     * @param previous index of the previous snapshot, or null; unchanged products reuse its tokens
+     */
+    static ProductSearchIndex build(List<Product> products, ProductSearchIndex previous) {
+        Map<Long, TokenizedDoc> tokenized = new HashMap<>();
+        for (Product p : products) {
+            TokenizedDoc reused = previous == null ? null : previous.tokenized.get(p.getId());
+            tokenized.put(p.getId(),
+                    reused != null && CatalogSnapshot.sameContent(reused.source, p) ? reused : TokenizedDoc.of(p));
+        }
+        return new ProductSearchIndex(products, tokenized);
+    }
+
+    /**
+     * Runs a free-text query. Every query token must match (as a prefix) a term in the
+     * product's name, description or attribute values.
+     *
+     * @return hits ordered by score descending, then id ascending
+     */
+    public List<Hit> search(String query) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty() || docs.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        float[] total = new float[docs.size()];
+        int[] matchedTerms = new int[docs.size()];
+        float[] termScore = new float[docs.size()];
+
+        for (String queryTerm : queryTerms) {
+            Arrays.fill(termScore, 0f);
+
+            // All dictionary terms starting with queryTerm form one contiguous run in the sorted array
+            int i = lowerBound(queryTerm);
+            while (i < terms.length && terms[i].startsWith(queryTerm)) {
+                float factor = terms[i].length() == queryTerm.length() ? 1.0f : PREFIX_PENALTY;
+                int[] ords = postingDocs[i];
+                float[] weights = postingWeights[i];
+                for (int k = 0; k < ords.length; k++) {
+                    // Best matching term per document counts once for this query term
+                    termScore[ords[k]] = Math.max(termScore[ords[k]], weights[k] * factor);
+                }
+                i++;
+            }
+
+            for (int ord = 0; ord < termScore.length; ord++) {
+                if (termScore[ord] > 0f) {
+                    total[ord] += termScore[ord];
+                    matchedTerms[ord]++;
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        for (int ord = 0; ord < docs.size(); ord++) {
+            if (matchedTerms[ord] == queryTerms.size()) {
+                hits.add(new Hit(docs.get(ord), total[ord]));
+            }
+        }
+        hits.sort((a, b) -> {
+            int c = Float.compare(b.score, a.score);
+            return c != 0 ? c : Long.compare(a.product.getId(), b.product.getId());
+        });
+        return hits;
+    }
+
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = terms.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (terms[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Lowercases, strips diacritics (and Turkish dotless i) and splits on anything that
+     * is not a letter or digit. Shared by indexing and querying so both sides agree.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .replace('ı', 'i')
+                .toLowerCase(Locale.ROOT);
+
+        List<String> tokens = new ArrayList<>();
+        for (String token : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /** A product matching a query, with its relevance score. */
+    public static final class Hit {
+        private final Product product;
+        private final float score;
+
+        Hit(Product product, float score) {
+            this.product = product;
+            this.score = score;
+        }
+
+        public Product getProduct() {
+            return product;
+        }
+
+        public float getScore() {
+            return score;
+        }
+    }
+
+    /** Per-product term weights, cached across rebuilds while the product content is unchanged. */
+    private static final class TokenizedDoc {
+        // The product the weights were computed from
+        private final Product source;
+        private final Map<String, Float> termWeights;
+
+        private TokenizedDoc(Product source, Map<String, Float> termWeights) {
+            this.source = source;
+            this.termWeights = termWeights;
+        }
+
+        static TokenizedDoc of(Product p) {
+            Map<String, Integer> nameTf = termFrequencies(tokenize(p.getName()));
+            Map<String, Integer> descriptionTf = termFrequencies(tokenize(p.getDescription()));
+            Map<String, Integer> attributeTf = new HashMap<>();
+            if (p.getAttributes() != null) {
+                for (Object value : p.getAttributes().values()) {
+                    if (value != null) {
+                        termFrequencies(tokenize(String.valueOf(value))).forEach((k, v) -> attributeTf.merge(k, v, Integer::sum));
+                    }
+                }
+            }
+
+            Map<String, Float> weights = new HashMap<>();
+            addField(weights, nameTf, NAME_WEIGHT);
+            addField(weights, attributeTf, ATTRIBUTE_WEIGHT);
+            addField(weights, descriptionTf, DESCRIPTION_WEIGHT);
+            return new TokenizedDoc(p, Collections.unmodifiableMap(weights));
+        }
+
+        private static Map<String, Integer> termFrequencies(List<String> tokens) {
+            Map<String, Integer> tf = new HashMap<>();
+            for (String token : tokens) {
+                tf.merge(token, 1, Integer::sum);
+            }
+            return tf;
+        }
+
+        private static void addField(Map<String, Float> weights, Map<String, Integer> tf, float fieldWeight) {
+            // Sub-linear tf so a word repeated in a long description does not outrank a name hit
+            tf.forEach((term, count) -> weights.merge(term, fieldWeight * (1f + (float) Math.log(count)), Float::sum));
+        }
+    }
+}
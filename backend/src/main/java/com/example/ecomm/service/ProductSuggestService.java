@@ -0,0 +1,134 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.model.Product;
+import com.example.ecomm.repository.OrderItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Search-as-you-type over product names and brands, backed by an immutable {@link SuggestTrie}.
+ *
+ * The trie is rebuilt when the catalog version changes and when sales popularity is
+ * re-read (on a fixed delay). Product names are indexed from every word, so "palette"
+ * completes "Huda Beauty Icy Nude Eyeshadow Palette" as well as "huda".
+ */
+@Service
+public class ProductSuggestService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSuggestService.class);
+
+    private final CatalogSnapshotService catalog;
+    private final OrderItemRepository orderItemRepository;
+
+    private volatile Map<Long, Long> popularity = Map.of();
+    private volatile Built built;
+
+    public ProductSuggestService(CatalogSnapshotService catalog, OrderItemRepository orderItemRepository) {
+        this.catalog = catalog;
+        this.orderItemRepository = orderItemRepository;
+    }
+
+    /**
+     * @return up to {@code limit} completions for the prefix, featured and best-selling first
+     */
+    public List<SuggestTrie.Suggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        return trie().lookup(normalized, Math.max(1, Math.min(limit, SuggestTrie.MAX_RESULTS)));
+    }
+
+    /** Re-reads units sold per product and re-ranks the trie. */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${catalog.suggest.popularity-refresh-ms:600000}",
+            initialDelayString = "${catalog.suggest.popularity-refresh-ms:600000}")
+    public void refreshPopularity() {
+        Map<Long, Long> sold = new HashMap<>();
+        for (Object[] row : orderItemRepository.sumQuantityByProduct()) {
+            sold.put((Long) row[0], row[1] == null ? 0L : ((Number) row[1]).longValue());
+        }
+        popularity = sold;
+        rebuild(catalog.current());
+    }
+
+    private SuggestTrie trie() {
+        CatalogSnapshot snapshot = catalog.current();
+        Built b = built;
+        if (b == null || b.catalogVersion != snapshot.getVersion()) {
+            b = rebuildIfStale(snapshot);
+        }
+        return b.trie;
+    }
+
+    // Threads that missed together wait here; only the first one builds
+    private synchronized Built rebuildIfStale(CatalogSnapshot snapshot) {
+        Built b = built;
+        if (b != null && b.catalogVersion == snapshot.getVersion()) {
+            return b;
+        }
+        return rebuild(snapshot);
+    }
+
+    private synchronized Built rebuild(CatalogSnapshot snapshot) {
+        Map<Long, Long> sold = popularity;
+        SuggestTrie.Builder builder = new SuggestTrie.Builder();
+
+        // Brands are not a column; they come from an optional "brand" attribute
+        Map<String, SuggestTrie.Suggestion> brands = new LinkedHashMap<>();
+        Map<String, Long> brandPopularity = new HashMap<>();
+        Map<String, Boolean> brandFeatured = new HashMap<>();
+
+        for (Product p : snapshot.all()) {
+            if (p.getName() == null || p.getName().isBlank()) {
+                continue;
+            }
+            long units = sold.getOrDefault(p.getId(), 0L);
+            SuggestTrie.Suggestion suggestion =
+                    new SuggestTrie.Suggestion(p.getName(), "product", p.getId(), p.isFeatured(), units);
+
+            List<String> words = ProductSearchIndex.tokenize(p.getName());
+            for (int i = 0; i < words.size(); i++) {
+                builder.add(String.join(" ", words.subList(i, words.size())), suggestion);
+            }
+
+            Object brand = p.getAttributes() == null ? null : p.getAttributes().get("brand");
+            if (brand != null && !String.valueOf(brand).isBlank()) {
+                String name = String.valueOf(brand).trim();
+                brandPopularity.merge(name, units, Long::sum);
+                brandFeatured.merge(name, p.isFeatured(), Boolean::logicalOr);
+            }
+        }
+        brandPopularity.forEach((name, units) -> brands.put(name,
+                new SuggestTrie.Suggestion(name, "brand", null, brandFeatured.get(name), units)));
+        brands.forEach((name, suggestion) -> builder.add(normalize(name), suggestion));
+
+        Built b = new Built(snapshot.getVersion(), builder.build());
+        built = b;
+        log.debug("Suggest trie rebuilt for catalog version {}", snapshot.getVersion());
+        return b;
+    }
+
+    private static String normalize(String text) {
+        return String.join(" ", ProductSearchIndex.tokenize(text));
+    }
+
+    private static final class Built {
+        private final long catalogVersion;
+        private final SuggestTrie trie;
+
+        private Built(long catalogVersion, SuggestTrie trie) {
+            this.catalogVersion = catalogVersion;
+            this.trie = trie;
+        }
+    }
+}
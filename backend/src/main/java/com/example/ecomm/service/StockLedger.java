@@ -0,0 +1,294 @@
+package com.example.ecomm.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * In-memory stock ledger: one {@link AtomicInteger} of available units per stock-managed product.
+ *
+ * Checkout reserves all lines of an order with compare-and-set decrements (all or nothing),
+ * so concurrent checkouts of a hot product never wait on a row lock. Each reservation or
+ * restock also appends a stock_movements row in the caller's transaction; a rollback drops the
+ * row and gives the units back to the counter. Movements are applied to products.stock in one
+ * batched UPDATE per flush interval, by whichever instance gets to them, and survive a crash.
+ *
+ * A counter starts from products.stock plus the movements not applied yet, and is reconciled
+ * with that total every {@code catalog.stock.reload-interval-ms} (or through {@link #reload}):
+ * whatever changed it besides this instance — a restock in the database, another instance's
+ * sales — is added to the counter. Products with a null stock are not stock-managed and
+ * always succeed.
+ */
+@Service
+public class StockLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedger.class);
+
+    // Marker for products without stock management
+    private static final AtomicInteger UNLIMITED = new AtomicInteger(Integer.MAX_VALUE);
+
+    /** Movements applied per flush transaction; products per reload query. */
+    private static final int CHUNK_SIZE = 500;
+
+    // products.stock plus unapplied movements, per product, in one query
+    private static final String EFFECTIVE_STOCK = "SELECT p.id, p.stock + COALESCE("
+            + "(SELECT SUM(m.delta) FROM stock_movements m WHERE m.product_id = p.id), 0) FROM products p WHERE p.id IN (";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, AtomicInteger> available = new ConcurrentHashMap<>();
+
+    // productId → effective stock the counter was last reconciled with, moved by this instance's
+    // committed movements; guarded by this
+    private final Map<Long, Integer> reconciled = new HashMap<>();
+
+    public StockLedger(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Atomically reserves every line or none. Inside an active transaction the reservation is
+     * committed or released together with it; outside one it is committed immediately.
+     *
+     * @param quantities productId → units (positive)
+     * @throws ResponseStatusException 409 if any product does not have enough stock left
+     */
+    public void reserve(Map<Long, Integer> quantities) {
+        // Fixed id order keeps partial reservations (and their rollback) deterministic
+        Map<Long, Integer> lines = new TreeMap<>(quantities);
+        load(lines.keySet());
+
+        Map<Long, Integer> taken = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            AtomicInteger counter = available.get(line.getKey());
+            if (counter == null || counter == UNLIMITED) {
+                continue;
+            }
+            if (!tryTake(counter, line.getValue())) {
+                giveBack(taken);
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Not enough stock for product " + line.getKey());
+            }
+            taken.put(line.getKey(), line.getValue());
+        }
+        if (taken.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> deltas = new LinkedHashMap<>();
+        taken.forEach((id, units) -> deltas.put(id, -units));
+        // The counters already moved; the reconciled totals follow once the sale is committed
+        record(deltas, () -> sold(deltas), () -> giveBack(taken));
+    }
+
+    /**
+     * Puts units of an already committed sale back (e.g. its payment failed). Inside an active
+     * transaction the units become available once it commits.
+     */
+    public void restock(Map<Long, Integer> quantities) {
+        load(quantities.keySet());
+        Map<Long, Integer> managed = new LinkedHashMap<>();
+        quantities.forEach((id, units) -> {
+            AtomicInteger counter = available.get(id);
+            if (counter != null && counter != UNLIMITED) {
+                managed.put(id, units);
+            }
+        });
+        if (managed.isEmpty()) {
+            return;
+        }
+        // Re-reading the committed movements adds the units exactly once, even if a reload ran meanwhile
+        record(managed, () -> reload(managed.keySet()), () -> {
+        });
+    }
+
+    /** Units currently available, or null if the product is not stock-managed or unknown. */
+    public Integer available(Long productId) {
+        load(Collections.singleton(productId));
+        AtomicInteger counter = available.get(productId);
+        return counter == null || counter == UNLIMITED ? null : counter.get();
+    }
+
+    /** Applies recorded movements to products.stock as one JDBC batch per chunk. */
+    @Scheduled(fixedDelayString = "${catalog.stock.flush-interval-ms:1000}")
+    public void flush() {
+        try {
+            while (Boolean.TRUE.equals(transactionTemplate.execute(status -> flushChunk()))) {
+                // Next chunk
+            }
+        } catch (RuntimeException e) {
+            // The movements stay in the table for the next attempt
+            log.warn("Stock flush failed, will retry: {}", e.toString());
+        }
+    }
+
+    /** Reconciles every loaded counter with the database. */
+    @Scheduled(fixedDelayString = "${catalog.stock.reload-interval-ms:60000}",
+            initialDelayString = "${catalog.stock.reload-interval-ms:60000}")
+    public void reloadAll() {
+        List<Long> ids = new ArrayList<>(available.keySet());
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            reload(ids.subList(from, Math.min(ids.size(), from + CHUNK_SIZE)));
+        }
+    }
+
+    /**
+     * Picks up stock changed outside this ledger (e.g. an admin restock written to products.stock)
+     * for the given products right away instead of at the next scheduled reload.
+     */
+    public synchronized void reload(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        queryEffectiveStock(productIds, (id, stock) -> {
+            AtomicInteger counter = available.get(id);
+            if (stock == null) {
+                available.put(id, UNLIMITED);
+                reconciled.remove(id);
+            } else if (counter == null || counter == UNLIMITED || !reconciled.containsKey(id)) {
+                available.put(id, new AtomicInteger(stock));
+                reconciled.put(id, stock);
+            } else {
+                // Only the outside change is applied, so reservations made meanwhile are kept
+                counter.addAndGet(stock - reconciled.put(id, stock));
+            }
+        });
+    }
+
+    private static boolean tryTake(AtomicInteger counter, int units) {
+        while (true) {
+            int current = counter.get();
+            if (current < units) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - units)) {
+                return true;
+            }
+        }
+    }
+
+    private void giveBack(Map<Long, Integer> taken) {
+        taken.forEach((id, units) -> available.get(id).addAndGet(units));
+    }
+
+    // Appends the movements in the current transaction, or immediately without one
+    private void record(Map<Long, Integer> deltas, Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                insertMovements(deltas);
+            } catch (RuntimeException e) {
+                onRollback.run();
+                throw e;
+            }
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else {
+                    onRollback.run();
+                }
+            }
+        });
+        insertMovements(deltas);
+    }
+
+    private void insertMovements(Map<Long, Integer> deltas) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> rows.add(new Object[] {id, delta, now}));
+        jdbcTemplate.batchUpdate("INSERT INTO stock_movements (product_id, delta, created_at) VALUES (?, ?, ?)", rows);
+    }
+
+    // A reload between the commit and this call sees the sale twice until the next reload; that only
+    // ever under-counts, so it can refuse a sale but never oversell
+    private synchronized void sold(Map<Long, Integer> deltas) {
+        deltas.forEach((id, delta) -> reconciled.computeIfPresent(id, (k, total) -> total + delta));
+    }
+
+    // Locks the oldest movements, adds them to their products and deletes them; true if a full chunk was applied.
+    // A concurrent flusher blocks on the same rows and then skips them, since they are gone.
+    private boolean flushChunk() {
+        List<Long> ids = new ArrayList<>();
+        Map<Long, Integer> sums = new TreeMap<>();
+        jdbcTemplate.query("SELECT id, product_id, delta FROM stock_movements ORDER BY id LIMIT " + CHUNK_SIZE
+                + " FOR UPDATE", rs -> {
+            ids.add(rs.getLong(1));
+            sums.merge(rs.getLong(2), rs.getInt(3), Integer::sum);
+        });
+        if (ids.isEmpty()) {
+            return false;
+        }
+        List<Object[]> updates = new ArrayList<>(sums.size());
+        sums.forEach((productId, delta) -> {
+            if (delta != 0) {
+                updates.add(new Object[] {delta, productId});
+            }
+        });
+        jdbcTemplate.batchUpdate("UPDATE products SET stock = stock + ? WHERE id = ? AND stock IS NOT NULL", updates);
+        jdbcTemplate.batchUpdate("DELETE FROM stock_movements WHERE id = ?", ids.stream().map(id -> new Object[] {id}).toList());
+        return ids.size() == CHUNK_SIZE;
+    }
+
+    // Loads counters for products not seen yet, in one query
+    private void load(Collection<Long> productIds) {
+        List<Long> missing = new ArrayList<>();
+        for (Long id : productIds) {
+            if (!available.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            // A concurrent loader may have won; its counter may already carry reservations
+            missing.removeIf(available::containsKey);
+            if (missing.isEmpty()) {
+                return;
+            }
+            queryEffectiveStock(missing, (id, stock) -> {
+                if (stock == null) {
+                    available.put(id, UNLIMITED);
+                } else {
+                    available.put(id, new AtomicInteger(stock));
+                    reconciled.put(id, stock);
+                }
+            });
+        }
+    }
+
+    private void queryEffectiveStock(Collection<Long> productIds, BiConsumer<Long, Integer> row) {
+        String in = String.join(",", Collections.nCopies(productIds.size(), "?"));
+        jdbcTemplate.query(EFFECTIVE_STOCK + in + ")", rs -> {
+            Long id = rs.getLong(1);
+            int stock = rs.getInt(2);
+            row.accept(id, rs.wasNull() ? null : stock);
+        }, productIds.toArray());
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.ecomm.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable prefix trie for search-as-you-type.
+ *
+ * Every node stores the best {@link #MAX_RESULTS} suggestions of its whole subtree, ranked
+ * once at build time, so a lookup is a walk of at most {@code prefix.length()} nodes and a copy
+ * of a precomputed list — no subtree traversal or sorting per keystroke. Chains of single-child
+ * nodes are collapsed into one multi-character edge (a radix tree), so the long tail of each
+ * key costs one node instead of one per character. Children are kept in sorted parallel arrays,
+ * keyed by the first character of their edge, and found by binary search.
+ */
+public final class SuggestTrie {
+
+    /** Upper bound for the number of suggestions a lookup can return. */
+    public static final int MAX_RESULTS = 10;
+
+    private final Node root;
+
+    private SuggestTrie(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * @return up to {@code limit} suggestions whose key starts with the normalized prefix, best first
+     */
+    public List<Suggestion> lookup(String normalizedPrefix, int limit) {
+        if (normalizedPrefix.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Node node = root;
+        int i = 0;
+        while (i < normalizedPrefix.length()) {
+            int k = node.childIndex(normalizedPrefix.charAt(i));
+            if (k < 0) {
+                return Collections.emptyList();
+            }
+            // A prefix may end inside an edge; everything below that edge still matches it
+            String edge = node.edges[k];
+            int n = Math.min(edge.length(), normalizedPrefix.length() - i);
+            if (!normalizedPrefix.regionMatches(i, edge, 0, n)) {
+                return Collections.emptyList();
+            }
+            node = node.children[k];
+            i += n;
+        }
+        // A copy: callers get an immutable list that never exposes the node's array
+        return List.of(Arrays.copyOf(node.top, Math.min(limit, node.top.length)));
+    }
+
+    /** Number of nodes after path compression; for tests and diagnostics. */
+    int nodeCount() {
+        return root.count();
+    }
+
+    /** A ranked completion: the display text, its kind and (for products) the product id. */
+    public static final class Suggestion {
+        private final String text;
+        private final String type;
+        private final Long productId;
+        private final boolean featured;
+        private final long popularity;
+
+        public Suggestion(String text, String type, Long productId, boolean featured, long popularity) {
+            this.text = text;
+            this.type = type;
+            this.productId = productId;
+            this.featured = featured;
+            this.popularity = popularity;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        // Featured first, then most sold, then alphabetical
+        static final Comparator<Suggestion> RANKING = Comparator
+                .comparing((Suggestion s) -> !s.featured)
+                .thenComparing(s -> -s.popularity)
+                .thenComparing(s -> s.text);
+    }
+
+    /** Collects (key, suggestion) pairs and freezes them into a trie. */
+    public static final class Builder {
+        private final BuildNode root = new BuildNode();
+
+        /** Registers {@code suggestion} under a normalized key; a suggestion may have several keys. */
+        public Builder add(String normalizedKey, Suggestion suggestion) {
+            BuildNode node = root;
+            for (int i = 0; i < normalizedKey.length(); i++) {
+                node = node.children.computeIfAbsent(normalizedKey.charAt(i), c -> new BuildNode());
+            }
+            if (!node.terminal.contains(suggestion)) {
+                node.terminal.add(suggestion);
+            }
+            return this;
+        }
+
+        public SuggestTrie build() {
+            return new SuggestTrie(freeze(root));
+        }
+
+        private static Node freeze(BuildNode node) {
+            char[] labels = new char[node.children.size()];
+            String[] edges = new String[node.children.size()];
+            Node[] children = new Node[node.children.size()];
+
+            // Merge the children's top lists with this node's own entries, keeping distinct suggestions
+            List<Suggestion> candidates = new ArrayList<>(node.terminal);
+            int i = 0;
+            for (Map.Entry<Character, BuildNode> e : node.children.entrySet()) {
+                // Follow the chain while it neither branches nor ends a key, and store it as one edge
+                StringBuilder edge = new StringBuilder().append(e.getKey());
+                BuildNode end = e.getValue();
+                while (end.children.size() == 1 && end.terminal.isEmpty()) {
+                    Map.Entry<Character, BuildNode> only = end.children.firstEntry();
+                    edge.append(only.getKey());
+                    end = only.getValue();
+                }
+                labels[i] = e.getKey();
+                edges[i] = edge.toString();
+                children[i] = freeze(end);
+                Collections.addAll(candidates, children[i].top);
+                i++;
+            }
+            Suggestion[] top = candidates.stream()
+                    .distinct()
+                    .sorted(Suggestion.RANKING)
+                    .limit(MAX_RESULTS)
+                    .toArray(Suggestion[]::new);
+            return new Node(labels, edges, children, top);
+        }
+    }
+
+    private static final class BuildNode {
+        private final TreeMap<Character, BuildNode> children = new TreeMap<>();
+        private final List<Suggestion> terminal = new ArrayList<>(1);
+    }
+
+    private static final class Node {
+        // First character of each edge, for the binary search
+        private final char[] labels;
+        private final String[] edges;
+        private final Node[] children;
+        private final Suggestion[] top;
+
+        private Node(char[] labels, String[] edges, Node[] children, Suggestion[] top) {
+            this.labels = labels;
+            this.edges = edges;
+            this.children = children;
+            this.top = top;
+        }
+
+        private int childIndex(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            return i >= 0 ? i : -1;
+        }
+
+        private int count() {
+            int n = 1;
+            for (Node child : children) {
+                n += child.count();
+            }
+            return n;
+        }
+    }
+}
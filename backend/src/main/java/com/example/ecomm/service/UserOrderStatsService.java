@@ -0,0 +1,123 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.dto.OrderStatsDTO;
+import com.example.ecomm.model.UserOrderStats;
+import com.example.ecomm.repository.OrderRepository;
+import com.example.ecomm.repository.UserOrderStatsRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-user order aggregates (user_order_stats) with an in-memory LRU in front.
+ *
+ * Writers update the row in their own transaction: a placed order is an atomic in-place
+ * increment, while failures and deletions recompute the user's row from items_order. A user
+ * without a row is backfilled from their history on first use. Both writes lock only the
+ * stats row, and only from the point they touch it until commit: a recompute first waits for
+ * any uncommitted increment, so it never reads a history that misses an order still being
+ * placed and then overwrites that order's increment. Every path that creates orders or
+ * moves them in or out of FAILED goes through {@link #recordOrder} or {@link #refresh}.
+ * Cache entries are dropped after commit; a read that overlapped a commit is not cached.
+ */
+@Service
+public class UserOrderStatsService {
+
+    private static final int MAX_CACHED = 10_000;
+
+    private final UserOrderStatsRepository repository;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Access-ordered LinkedHashMap = LRU; guarded by its own monitor, like generation
+    private final Map<Long, OrderStatsDTO> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, OrderStatsDTO> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+    private long generation;
+
+    public UserOrderStatsService(
+            UserOrderStatsRepository repository,
+            OrderRepository orderRepository,
+            TransactionTemplate transactionTemplate) {
+        this.repository = repository;
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /** Aggregates for the user: LRU first, then the table, backfilling the row if it is missing. */
+    public OrderStatsDTO get(Long userId) {
+        long seen;
+        synchronized (cache) {
+            OrderStatsDTO cached = cache.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+            seen = generation;
+        }
+        OrderStatsDTO stats = transactionTemplate.execute(status -> OrderStatsDTO.from(
+                repository.findById(userId).orElseGet(() -> recompute(userId))));
+        synchronized (cache) {
+            if (generation == seen) {
+                cache.put(userId, stats);
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Counts a newly placed order; must run in the transaction that inserted (and flushed) it,
+     * as late as possible, since the stats row stays locked until that transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOrder(Long userId, double amount, LocalDateTime orderedAt) {
+        // The UPDATE's row lock is held until commit, so a concurrent recompute waits and then sees this order
+        if (repository.increment(userId, amount, orderedAt) == 0) {
+            // First order since stats exist: the history already contains this order
+            recompute(userId);
+        }
+        invalidateAfterCommit(userId);
+    }
+
+    /** Recomputes the user's row after orders failed or were deleted in the current transaction. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refresh(Long userId) {
+        recompute(userId);
+        invalidateAfterCommit(userId);
+    }
+
+    private UserOrderStats recompute(Long userId) {
+        // Locked before the history is read, so uncommitted increments land first
+        UserOrderStats stats = repository.lockById(userId).orElse(null);
+        if (stats == null) {
+            repository.insertIfMissing(userId);
+            stats = repository.lockById(userId).orElseThrow();
+        }
+        Object[] row = orderRepository.aggregateByUser(userId).get(0);
+        stats.setOrderCount(((Number) row[0]).longValue());
+        stats.setTotalSpent(((Number) row[1]).doubleValue());
+        stats.setLastOrderAt((LocalDateTime) row[2]);
+        return stats;
+    }
+
+    private void invalidateAfterCommit(Long userId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                synchronized (cache) {
+                    cache.remove(userId);
+                    generation++;
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.ecomm.controller;
+
+import com.example.ecomm.DataSeeder;
+import com.example.ecomm.model.Order;
+import com.example.ecomm.model.OrderItem;
+import com.example.ecomm.model.OutboxEvent;
+import com.example.ecomm.model.Product;
+import com.example.ecomm.model.User;
+import com.example.ecomm.repository.OrderRepository;
+import com.example.ecomm.repository.OutboxEventRepository;
+import com.example.ecomm.repository.PaymentRepository;
+import com.example.ecomm.repository.ProductRepository;
+import com.example.ecomm.repository.UserRepository;
+import com.example.ecomm.seeder.DemoUserSeeder;
+import com.example.ecomm.service.OutboxService;
+import com.example.ecomm.service.StockLedger;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * H2 integration test for POST /api/checkout/complete.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CheckoutControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private ShopperFixture shop;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    /** Prevent Excel / demo seeders from running against the test H2 DB. */
+    @MockBean
+    private DataSeeder dataSeeder;
+
+    @MockBean
+    private DemoUserSeeder demoUserSeeder;
+
+    private String username;
+    private Long userId;
+    private Long paletteId;
+    private Long serumId;
+
+    @BeforeEach
+    void setUp() {
+        User user = shop.newUser("shopper");
+        username = user.getUsername();
+        userId = user.getId();
+        paletteId = shop.newProduct("Checkout Palette", 2999.0, "Makeup", "Eyeshadow");
+        serumId = shop.newProduct("Checkout Serum", 899.0, "Skincare", "Serum");
+        shop.refreshCatalog();
+    }
+
+    private MockHttpServletRequestBuilder checkout(String body) {
+        return shop.checkout(username, body);
+    }
+
+    private String body(int palettes) {
+        return ShopperFixture.checkoutJson(
+                new ShopperFixture.Line(paletteId, palettes, 2999.0), new ShopperFixture.Line(serumId, 1, 899.0));
+    }
+
+    @Test
+    void writesPaidOrderWithAllItemsAndPayment() throws Exception {
+        String body = body(2);
+
+        String json = mockMvc.perform(checkout(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andReturn().getResponse().getContentAsString();
+        Long orderId = ((Number) JsonPath.read(json, "$.orderId")).longValue();
+
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        assertThat(order.getStatus()).isEqualTo("PAID");
+        assertThat(order.getUser().getId()).isEqualTo(userId);
+        assertThat(order.getOrderItems())
+                .extracting(OrderItem::getQuantity)
+                .containsExactlyInAnyOrder(2, 1);
+        assertThat(order.getOrderItems())
+                .extracting(i -> i.getProduct().getId())
+                .containsExactlyInAnyOrder(paletteId, serumId);
+        assertThat(order.getOrderItems())
+                .extracting(OrderItem::getProductName)
+                .containsExactlyInAnyOrder("Checkout Palette", "Checkout Serum");
+        // Lines carry the order's createdAt (the partition key)
+        assertThat(order.getOrderItems())
+                .extracting(OrderItem::getCreatedAt)
+                .containsOnly(order.getCreatedAt());
+        assertThat(paymentRepository.findByOrderId(orderId)).get()
+                .satisfies(p -> assertThat(p.getStatus()).isEqualTo("PAID"));
+
+        // Every stage of the synchronous path is timed
+        for (String stage : new String[] {"user_lookup", "items", "order_insert", "payment", "transaction"}) {
+            assertThat(meterRegistry.get("checkout.stage").tag("stage", stage).timer().count()).isPositive();
+        }
+        assertThat(meterRegistry.get("checkout.items").tag("mode", "sync").summary().totalAmount()).isGreaterThan(0);
+    }
+
+    @Test
+    void retryWithSameIdempotencyKeyReplaysTheFirstResponse() throws Exception {
+        String first = mockMvc.perform(checkout(body(2)).header("Idempotency-Key", "retry-1"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn().getResponse().getContentAsString();
+        Number orderId = JsonPath.read(first, "$.orderId");
+
+        mockMvc.perform(checkout(body(2)).header("Idempotency-Key", "retry-1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.orderId").value(orderId.longValue()));
+
+        // Same key with a different payload is a client bug, not a retry
+        mockMvc.perform(checkout(body(3)).header("Idempotency-Key", "retry-1"))
+                .andExpect(status().isUnprocessableEntity());
+
+        User user = userRepository.findById(userId).orElseThrow();
+        assertThat(orderRepository.findByUser(user)).hasSize(1);
+    }
+
+    @Test
+    void retryAfterAPriceChangeStillReplays() throws Exception {
+        String first = mockMvc.perform(checkout(body(1)).header("Idempotency-Key", "retry-2"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Number orderId = JsonPath.read(first, "$.orderId");
+
+        Product palette = productRepository.findById(paletteId).orElseThrow();
+        palette.setPrice(3499.0);
+        productRepository.save(palette);
+        shop.refreshCatalog();
+
+        // The stored response stands; the retry is not re-priced against the new catalog
+        mockMvc.perform(checkout(body(1)).header("Idempotency-Key", "retry-2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.orderId").value(orderId.longValue()));
+        // A new order at the old price is rejected
+        mockMvc.perform(checkout(body(1)).header("Idempotency-Key", "retry-3"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void asyncCheckoutAcceptsPendingOrderThatWorkersPay() throws Exception {
+        String json = mockMvc.perform(checkout(body(2)).header("Prefer", "respond-async"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andReturn().getResponse().getContentAsString();
+        Long orderId = ((Number) JsonPath.read(json, "$.orderId")).longValue();
+
+        // Poll like a client would
+        String orderStatus = "PENDING";
+        for (int i = 0; i < 100 && "PENDING".equals(orderStatus); i++) {
+            Thread.sleep(50);
+            String order = mockMvc.perform(get("/api/orders/" + orderId)
+                            .header(HttpHeaders.AUTHORIZATION, shop.bearer(username)))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            orderStatus = JsonPath.read(order, "$.status");
+        }
+
+        assertThat(orderStatus).isEqualTo("PAID");
+        assertThat(paymentRepository.findByOrderId(orderId)).isPresent();
+        assertThat(orderRepository.findById(orderId).orElseThrow().getOrderItems()).hasSize(2);
+    }
+
+    @Test
+    void onlyPendingOrdersAcceptAPayment() throws Exception {
+        User user = userRepository.findById(userId).orElseThrow();
+        Order failed = new Order(user, "Ada", "555", "Street 1", "Izmir", "35000", 899.0);
+        failed.setStatus("FAILED");
+        Long failedId = orderRepository.save(failed).getId();
+
+        // A late payment must not revive an order whose stock was already given back
+        mockMvc.perform(post("/api/payments")
+                        .header(HttpHeaders.AUTHORIZATION, shop.bearer(username))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"orderId":%d,"amount":899.0,"cardholderName":"Ada","cardNumber":"4111111111111111"}
+                                """.formatted(failedId)))
+                .andExpect(status().isConflict());
+
+        assertThat(orderRepository.findById(failedId).orElseThrow().getStatus()).isEqualTo("FAILED");
+        assertThat(paymentRepository.findByOrderId(failedId)).isEmpty();
+    }
+
+    @Test
+    void stockIsReservedAllOrNothingAndFlushedToTheProduct() throws Exception {
+        Product limited = new Product("Limited Set", "", 100.0, "img.jpg", false, "{}", "Makeup", "Sets");
+        limited.setStock(1);
+        Long limitedId = productRepository.save(limited).getId();
+        shop.refreshCatalog();
+        String twoSets = """
+                {"amount":200.0,"items":[{"productId":%d,"quantity":1,"price":100.0},
+                                         {"productId":%d,"quantity":1,"price":100.0}]}
+                """.formatted(limitedId, limitedId);
+        String oneSet = """
+                {"amount":999.0,"items":[{"productId":%d,"quantity":1,"price":100.0},
+                                         {"productId":%d,"quantity":1,"price":899.0}]}
+                """.formatted(limitedId, serumId);
+
+        mockMvc.perform(checkout(twoSets)).andExpect(status().isConflict());
+        mockMvc.perform(checkout(oneSet)).andExpect(status().isOk());
+        mockMvc.perform(checkout(oneSet)).andExpect(status().isConflict());
+
+        User user = userRepository.findById(userId).orElseThrow();
+        assertThat(orderRepository.findByUser(user)).hasSize(1);
+
+        stockLedger.flush();
+        assertThat(productRepository.findById(limitedId).orElseThrow().getStock()).isZero();
+        // Products without a stock value are not stock-managed
+        assertThat(productRepository.findById(serumId).orElseThrow().getStock()).isNull();
+    }
+
+    @Test
+    void clientPricesAreCheckedAgainstTheCatalog() throws Exception {
+        String stalePrice = """
+                {"amount":1998.0,"items":[{"productId":%d,"quantity":2,"price":999.0}]}
+                """.formatted(serumId);
+        String wrongTotal = """
+                {"amount":1.0,"items":[{"productId":%d,"quantity":2,"price":899.0}]}
+                """.formatted(serumId);
+        String noUnitPrice = """
+                {"amount":1798.0,"items":[{"productId":%d,"quantity":2}]}
+                """.formatted(serumId);
+
+        mockMvc.perform(checkout(stalePrice)).andExpect(status().isBadRequest());
+        mockMvc.perform(checkout(wrongTotal)).andExpect(status().isBadRequest());
+        mockMvc.perform(checkout("""
+                {"amount":10.0,"items":[{"productId":-1,"quantity":1,"price":10.0}]}
+                """)).andExpect(status().isBadRequest());
+
+        String json = mockMvc.perform(checkout(noUnitPrice))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Long orderId = ((Number) JsonPath.read(json, "$.orderId")).longValue();
+        assertThat(orderRepository.findById(orderId).orElseThrow().getOrderItems())
+                .extracting(OrderItem::getPrice)
+                .containsExactly(899.0);
+    }
+
+    @Test
+    void productsAndPricesNotInTheSnapshotYetAreReadFromTheDatabase() throws Exception {
+        Long brushId = productRepository.save(new Product("New Brush", "", 150.0, "img.jpg", false, "{}",
+                "Makeup", "Tools")).getId();
+        Product serum = productRepository.findById(serumId).orElseThrow();
+        serum.setPrice(950.0);
+        productRepository.save(serum);
+        // No refreshCatalog(): the snapshot knows neither change
+
+        mockMvc.perform(checkout("""
+                {"amount":150.0,"items":[{"productId":%d,"quantity":1}]}
+                """.formatted(brushId))).andExpect(status().isOk());
+        mockMvc.perform(checkout("""
+                {"amount":1100.0,"items":[{"productId":%d,"quantity":1,"price":150.0},
+                                          {"productId":%d,"quantity":1,"price":950.0}]}
+                """.formatted(brushId, serumId))).andExpect(status().isOk());
+        mockMvc.perform(checkout("""
+                {"amount":160.0,"items":[{"productId":%d,"quantity":1,"price":160.0}]}
+                """.formatted(brushId))).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void checkoutWritesOutboxEventsThatTheRelayPublishes() throws Exception {
+        String json = mockMvc.perform(checkout(body(1)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Long orderId = ((Number) JsonPath.read(json, "$.orderId")).longValue();
+
+        assertThat(outboxEventRepository.findAll())
+                .filteredOn(e -> e.getPayload().contains("\"orderId\":" + orderId + ","))
+                .extracting(OutboxEvent::getEventType)
+                .contains(OutboxService.ORDER_PLACED, OutboxService.PAYMENT_RECORDED);
+
+        outboxService.relay();
+
+        assertThat(outboxEventRepository.findAll()).allSatisfy(e -> assertThat(e.getPublishedAt()).isNotNull());
+    }
+}
+
@@ -0,0 +1,175 @@
+package com.example.ecomm.controller;
+
+import com.example.ecomm.DataSeeder;
+import com.example.ecomm.seeder.DemoUserSeeder;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * H2 integration test for the signed-in user's order endpoints under /api/orders/me.
+ * Orders are placed through POST /api/checkout/complete.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShopperFixture shop;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Prevent Excel / demo seeders from running against the test H2 DB. */
+    @MockBean
+    private DataSeeder dataSeeder;
+
+    @MockBean
+    private DemoUserSeeder demoUserSeeder;
+
+    private String username;
+    private Long paletteId;
+    private Long serumId;
+
+    @BeforeEach
+    void setUp() {
+        username = shop.newUser("orders").getUsername();
+        paletteId = shop.newProduct("Order Palette", 2999.0, "Makeup", "Eyeshadow");
+        serumId = shop.newProduct("Order Serum", 899.0, "Skincare", "Serum");
+        shop.refreshCatalog();
+    }
+
+    private String auth() {
+        return shop.bearer(username);
+    }
+
+    private MockHttpServletRequestBuilder checkout(int palettes) {
+        return shop.checkout(username, ShopperFixture.checkoutJson(
+                new ShopperFixture.Line(paletteId, palettes, 2999.0), new ShopperFixture.Line(serumId, 1, 899.0)));
+    }
+
+    @Test
+    void orderHistoryIsPagedNewestFirstWithItemSummaries() throws Exception {
+        Number[] orderIds = new Number[3];
+        for (int i = 0; i < 3; i++) {
+            String json = mockMvc.perform(checkout(i + 1))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            orderIds[i] = JsonPath.read(json, "$.orderId");
+        }
+
+        String first = mockMvc.perform(get("/api/orders/me").param("limit", "2").header(HttpHeaders.AUTHORIZATION, auth()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].id").value(orderIds[2].longValue()))
+                .andExpect(jsonPath("$.items[1].id").value(orderIds[1].longValue()))
+                .andExpect(jsonPath("$.items[0].orderItems.length()").value(2))
+                .andExpect(jsonPath("$.items[0].orderItems[0].productId").isNumber())
+                .andExpect(jsonPath("$.items[0].orderItems[0].productName").isString())
+                .andExpect(jsonPath("$.items[0].orderItems[0].product").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = JsonPath.read(first, "$.nextCursor");
+
+        mockMvc.perform(get("/api/orders/me").param("limit", "2").param("cursor", cursor)
+                        .header(HttpHeaders.AUTHORIZATION, auth()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(orderIds[0].longValue()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        // Without paging params the whole history comes back as a plain list, as before
+        mockMvc.perform(get("/api/orders/me").header(HttpHeaders.AUTHORIZATION, auth()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[2].orderItems[0].quantity").isNumber());
+    }
+
+    @Test
+    void legacyOrdersWithoutCreatedAtArePagedLast() throws Exception {
+        long[] orderIds = new long[3];
+        for (int i = 0; i < 3; i++) {
+            String json = mockMvc.perform(checkout(1)).andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            orderIds[i] = ((Number) JsonPath.read(json, "$.orderId")).longValue();
+        }
+        // Rows from before createdAt was always set; written past the entity's @PrePersist default
+        jdbcTemplate.update("UPDATE items_order SET created_at = NULL WHERE id IN (?, ?)", orderIds[0], orderIds[1]);
+
+        long[] expected = {orderIds[2], orderIds[1], orderIds[0]};
+        String cursor = null;
+        for (long id : expected) {
+            MockHttpServletRequestBuilder page = get("/api/orders/me").param("limit", "1")
+                    .header(HttpHeaders.AUTHORIZATION, auth());
+            if (cursor != null) {
+                page.param("cursor", cursor);
+            }
+            String json = mockMvc.perform(page)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items.length()").value(1))
+                    .andExpect(jsonPath("$.items[0].id").value(id))
+                    .andReturn().getResponse().getContentAsString();
+            cursor = JsonPath.read(json, "$.nextCursor");
+        }
+        assertThat(cursor).isNull();
+    }
+
+    @Test
+    void singleOrderIsVisibleToItsOwnerOnly() throws Exception {
+        String json = mockMvc.perform(checkout(1)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Number orderId = JsonPath.read(json, "$.orderId");
+
+        mockMvc.perform(get("/api/orders/" + orderId).header(HttpHeaders.AUTHORIZATION, auth()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PAID"));
+
+        String other = shop.newUser("other").getUsername();
+        mockMvc.perform(get("/api/orders/" + orderId).header(HttpHeaders.AUTHORIZATION, shop.bearer(other)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/orders/999999999").header(HttpHeaders.AUTHORIZATION, auth()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void orderStreamPushesStatusChangesAfterCommit() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/api/orders/me/stream").header(HttpHeaders.AUTHORIZATION, auth()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String json = mockMvc.perform(checkout(1).header("Prefer", "respond-async"))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        Number orderId = JsonPath.read(json, "$.orderId");
+
+        // PENDING from the checkout request, then PAID from the pipeline worker
+        String paid = "{\"orderId\":" + orderId + ",\"status\":\"PAID\"}";
+        String events = "";
+        for (int i = 0; i < 100 && !events.contains(paid); i++) {
+            Thread.sleep(50);
+            events = stream.getResponse().getContentAsString();
+        }
+        assertThat(events).contains("event:order-status");
+        assertThat(events).contains("{\"orderId\":" + orderId + ",\"status\":\"PENDING\"}");
+        assertThat(events.indexOf("PENDING")).isLessThan(events.indexOf(paid));
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.ecomm.controller;
+
+import com.example.ecomm.DataSeeder;
+import com.example.ecomm.model.Product;
+import com.example.ecomm.model.User;
+import com.example.ecomm.repository.ProductRepository;
+import com.example.ecomm.repository.UserRepository;
+import com.example.ecomm.security.JwtUtil;
+import com.example.ecomm.seeder.DemoUserSeeder;
+import com.example.ecomm.service.CatalogSnapshotService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * H2 integration test for GET /api/admin/orders/export (admin.usernames=export-admin in the test profile).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderExportControllerTest {
+
+    private static final String ADMIN = "export-admin";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private CatalogSnapshotService catalog;
+
+    /** Prevent Excel / demo seeders from running against the test H2 DB. */
+    @MockBean
+    private DataSeeder dataSeeder;
+
+    @MockBean
+    private DemoUserSeeder demoUserSeeder;
+
+    private String username;
+    private long orderId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        username = "exported-" + UUID.randomUUID();
+        userRepository.save(new User(username, "x", username + "@example.com"));
+        if (userRepository.findByUsername(ADMIN).isEmpty()) {
+            userRepository.save(new User(ADMIN, "x", ADMIN + "@example.com"));
+        }
+        Long paletteId = productRepository.save(new Product("Export Palette", "", 2999.0, "img.jpg", false, "{}",
+                "Makeup", "Eyeshadow")).getId();
+        Long serumId = productRepository.save(new Product("Export Serum", "", 899.0, "img.jpg", false, "{}",
+                "Skincare", "Serum")).getId();
+        catalog.refresh();
+
+        // A name that spreadsheets would evaluate and an address that needs quoting
+        String json = mockMvc.perform(post("/api/checkout/complete")
+                        .header(HttpHeaders.AUTHORIZATION, bearer(username))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"customerName":"=SUM(A1:A9)","phoneNumber":"555",
+                                 "addressLine":"Street \\"1\\", Apt 2","city":"Izmir","postalCode":"35000",
+                                 "cardholderName":"Ada","cardNumber":"4111111111111111","expiryDate":"12/30",
+                                 "cvv":"123","amount":6897.0,
+                                 "items":[{"productId":%d,"quantity":2,"price":2999.0},
+                                          {"productId":%d,"quantity":1,"price":899.0}]}
+                                """.formatted(paletteId, serumId)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        orderId = ((Number) JsonPath.read(json, "$.orderId")).longValue();
+    }
+
+    private String bearer(String user) {
+        return "Bearer " + jwtUtil.generateToken(user);
+    }
+
+    private String export(String format) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/admin/orders/export").param("format", format)
+                        .header(HttpHeaders.AUTHORIZATION, bearer(ADMIN)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Test
+    void onlyAdminsMayExport() throws Exception {
+        mockMvc.perform(get("/api/admin/orders/export").header(HttpHeaders.AUTHORIZATION, bearer(username)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void onlyAdminsMayReadMetrics() throws Exception {
+        mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, bearer(username)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics/checkout.stage").header(HttpHeaders.AUTHORIZATION, bearer(username)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, bearer(ADMIN)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void ndjsonHasOneLinePerOrderWithNestedItems() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/admin/orders/export")
+                        .header(HttpHeaders.AUTHORIZATION, bearer(ADMIN)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String line = lines.lines()
+                .filter(l -> ((Number) JsonPath.read(l, "$.id")).longValue() == orderId)
+                .findFirst().orElseThrow();
+        assertThat((Integer) JsonPath.read(line, "$.orderItems.length()")).isEqualTo(2);
+        assertThat((String) JsonPath.read(line, "$.status")).isEqualTo("PAID");
+        // NDJSON is not for spreadsheets; values are exported unchanged
+        assertThat((String) JsonPath.read(line, "$.customerName")).isEqualTo("=SUM(A1:A9)");
+    }
+
+    @Test
+    void csvHasOneRowPerLineWithQuotingAndFormulaEscaping() throws Exception {
+        String rows = export("csv");
+
+        assertThat(rows).startsWith("order_id,created_at,user_id,status,amount,");
+        assertThat(rows.lines().filter(r -> r.startsWith(orderId + ","))).hasSize(2)
+                .allSatisfy(r -> assertThat(r)
+                        .contains(",PAID,6897.0,'=SUM(A1:A9),555,\"Street \"\"1\"\", Apt 2\",Izmir,35000,"));
+    }
+}
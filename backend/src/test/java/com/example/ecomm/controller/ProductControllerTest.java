@@ -0,0 +1,253 @@
+package com.example.ecomm.controller;
+
+import com.example.ecomm.DataSeeder;
+import com.example.ecomm.model.Product;
+import com.example.ecomm.repository.OrderItemRepository;
+import com.example.ecomm.repository.OrderRepository;
+import com.example.ecomm.repository.PaymentRepository;
+import com.example.ecomm.repository.ProductRepository;
+import com.example.ecomm.seeder.DemoUserSeeder;
+import com.example.ecomm.service.CatalogSnapshot;
+import com.example.ecomm.service.CatalogSnapshotService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * H2 integration test for the public catalog endpoints (snapshot reads, paging, conditional GET).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CatalogSnapshotService catalog;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    /** Prevent Excel / demo seeders from running against the test H2 DB. */
+    @MockBean
+    private DataSeeder dataSeeder;
+
+    @MockBean
+    private DemoUserSeeder demoUserSeeder;
+
+    @BeforeEach
+    void setUp() {
+        // Order lines of other test classes reference products (shared H2 context)
+        paymentRepository.deleteAll();
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        save("Icy Nude Eyeshadow Palette", 2999.0, true, "Makeup", "Eyeshadow");
+        save("Midi Eyeshadow Palette", 2499.0, false, "Makeup", "Eyeshadow");
+        save("Hydrating Serum", 899.0, true, "Skincare", "Serum");
+        catalog.refresh();
+    }
+
+    // attributes stay null: H2 cannot round-trip the Postgres jsonb column
+    private void save(String name, double price, boolean featured, String main, String sub) {
+        productRepository.save(new Product(name, name + " description", price, "img.jpg", featured, "{}", main, sub));
+    }
+
+    @Test
+    void listsAndPagesFromTheSnapshot() throws Exception {
+        mockMvc.perform(get("/api/products").param("mainCategory", "Makeup"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+
+        String body = mockMvc.perform(get("/api/products").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+
+        String cursor = JsonPath.read(body, "$.nextCursor");
+        mockMvc.perform(get("/api/products").param("limit", "2").param("cursor", cursor))
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("Hydrating Serum"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void answersRepeatRequestsWith304UntilTheCatalogChanges() throws Exception {
+        String etag = mockMvc.perform(get("/api/products/top"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        // The same version number from another boot or instance names a different catalog
+        String otherInstance = etag.replace(catalog.getEpoch(), "restarted");
+        mockMvc.perform(get("/api/products/top").header(HttpHeaders.IF_NONE_MATCH, otherInstance))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/products/top").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        save("New Lipstick", 499.0, true, "Makeup", "Lipstick");
+        catalog.refresh();
+
+        mockMvc.perform(get("/api/products/top").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("New Lipstick"));
+    }
+
+    @Test
+    void refreshKeepsTheSnapshotUntilAProductIsEdited() throws Exception {
+        CatalogSnapshot before = catalog.current();
+        assertThat(catalog.refresh()).isSameAs(before);
+
+        // An edit to one field of an existing row, which leaves the product count unchanged
+        Product serum = productRepository.findAll().stream()
+                .filter(p -> p.getName().equals("Hydrating Serum")).findFirst().orElseThrow();
+        serum.setPrice(949.0);
+        productRepository.save(serum);
+
+        CatalogSnapshot after = catalog.refresh();
+        assertThat(after.getVersion()).isEqualTo(before.getVersion() + 1);
+        mockMvc.perform(get("/api/products").param("sort", "price_asc"))
+                .andExpect(jsonPath("$[0].price").value(949.0));
+    }
+
+    @Test
+    void sortsAndFiltersByPrice() throws Exception {
+        mockMvc.perform(get("/api/products").param("sort", "price_asc"))
+                .andExpect(jsonPath("$[*].price").value(contains(899.0, 2499.0, 2999.0)));
+
+        mockMvc.perform(get("/api/products").param("sort", "price_desc").param("minPrice", "900").param("maxPrice", "2999"))
+                .andExpect(jsonPath("$[*].name").value(contains(
+                        "Icy Nude Eyeshadow Palette", "Midi Eyeshadow Palette")));
+
+        mockMvc.perform(get("/api/products").param("sort", "newest").param("mainCategory", "Makeup"))
+                .andExpect(jsonPath("$[0].name").value("Midi Eyeshadow Palette"));
+
+        mockMvc.perform(get("/api/products").param("sort", "cheapest"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void suggestsFeaturedNamesFirstFromAnyWord() throws Exception {
+        mockMvc.perform(get("/api/products/suggest").param("prefix", "Pal"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].text").value(contains(
+                        "Icy Nude Eyeshadow Palette", "Midi Eyeshadow Palette")))
+                .andExpect(jsonPath("$[0].type").value("product"));
+
+        mockMvc.perform(get("/api/products/suggest").param("prefix", "eyeshadow p").param("limit", "1"))
+                .andExpect(jsonPath("$.length()").value(1));
+
+        mockMvc.perform(get("/api/products/suggest").param("prefix", "xyz"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void summaryViewDropsHeavyFields() throws Exception {
+        mockMvc.perform(get("/api/products").param("view", "summary").param("subCategory", "Serum"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Hydrating Serum"))
+                .andExpect(jsonPath("$[0].mainCategory").value("Skincare"))
+                .andExpect(jsonPath("$[0].details").doesNotExist())
+                .andExpect(jsonPath("$[0].description").doesNotExist());
+
+        mockMvc.perform(get("/api/products/featured").param("view", "summary"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].details").doesNotExist());
+
+        mockMvc.perform(get("/api/products").param("view", "compact"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void batchLookupReportsMissingIds() throws Exception {
+        Long first = productRepository.findAll().get(0).getId();
+
+        mockMvc.perform(get("/api/products/batch").param("ids", first + ",999999," + first))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(1))
+                .andExpect(jsonPath("$.products[0].id").value(first))
+                .andExpect(jsonPath("$.missing[0]").value(999999));
+    }
+
+    @Test
+    void servesFeaturedAsPreEncodedJsonOrGzip() throws Exception {
+        mockMvc.perform(get("/api/products/featured"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Hydrating Serum"));
+
+        byte[] gzipped = mockMvc.perform(get("/api/products/top").header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, containsString("-gz")))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            String json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(JsonPath.<List<String>>read(json, "$[*].name"))
+                    .containsExactly("Hydrating Serum", "Icy Nude Eyeshadow Palette");
+        }
+    }
+
+    @Test
+    void onlyTheGzippableFeaturedListVariesByEncoding() throws Exception {
+        String identity = mockMvc.perform(get("/api/products"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Never gzipped: same ETag as without Accept-Encoding, and no Vary on it
+        mockMvc.perform(get("/api/products").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, identity))
+                .andExpect(header().stringValues(HttpHeaders.VARY, not(hasItem(HttpHeaders.ACCEPT_ENCODING))));
+
+        mockMvc.perform(get("/api/products/featured").param("limit", "1").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, not(containsString("-gz"))));
+
+        mockMvc.perform(get("/api/products/featured").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, containsString("-gz")))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.ecomm.controller;
+
+import com.example.ecomm.model.Product;
+import com.example.ecomm.model.User;
+import com.example.ecomm.repository.ProductRepository;
+import com.example.ecomm.repository.UserRepository;
+import com.example.ecomm.security.JwtUtil;
+import com.example.ecomm.service.CatalogSnapshotService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Shared setup for controller tests that check out as a signed-in user: a fresh user per test,
+ * products in the catalog, bearer tokens and POST /api/checkout/complete requests.
+ *
+ * A plain component picked up by the test context's scan, so tests autowire it without
+ * changing the context key (every test class keeps sharing one H2 context).
+ */
+@Component
+class ShopperFixture {
+
+    /** One checkout line; the order amount is the sum of quantity × price. */
+    record Line(long productId, int quantity, double price) {
+    }
+
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final JwtUtil jwtUtil;
+    private final CatalogSnapshotService catalog;
+
+    ShopperFixture(UserRepository userRepository, ProductRepository productRepository, JwtUtil jwtUtil,
+                   CatalogSnapshotService catalog) {
+        this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.jwtUtil = jwtUtil;
+        this.catalog = catalog;
+    }
+
+    /** Saves a user with a unique name starting with {@code prefix}. */
+    User newUser(String prefix) {
+        String username = prefix + "-" + UUID.randomUUID();
+        return userRepository.save(new User(username, "x", username + "@example.com"));
+    }
+
+    /** Saves an unlimited, non-featured product; call {@link #refreshCatalog()} to make it visible. */
+    Long newProduct(String name, double price, String mainCategory, String subCategory) {
+        return productRepository.save(new Product(name, "", price, "img.jpg", false, "{}",
+                mainCategory, subCategory)).getId();
+    }
+
+    void refreshCatalog() {
+        catalog.refresh();
+    }
+
+    String bearer(String username) {
+        return "Bearer " + jwtUtil.generateToken(username);
+    }
+
+    MockHttpServletRequestBuilder checkout(String username, String body) {
+        return post("/api/checkout/complete")
+                .header(HttpHeaders.AUTHORIZATION, bearer(username))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+
+    /** A complete checkout body (address and card included) for the given lines. */
+    static String checkoutJson(Line... lines) {
+        double amount = Arrays.stream(lines).mapToDouble(l -> l.quantity() * l.price()).sum();
+        String items = Arrays.stream(lines)
+                .map(l -> "{\"productId\":%d,\"quantity\":%d,\"price\":%s}".formatted(l.productId(), l.quantity(), l.price()))
+                .collect(Collectors.joining(","));
+        return """
+                {"customerName":"Ada","phoneNumber":"555","addressLine":"Street 1","city":"Izmir",
+                 "postalCode":"35000","cardholderName":"Ada","cardNumber":"4111111111111111",
+                 "expiryDate":"12/30","cvv":"123","amount":%s,"items":[%s]}
+                """.formatted(amount, items);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.ecomm.controller;
+
+import com.example.ecomm.DataSeeder;
+import com.example.ecomm.seeder.DemoUserSeeder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * H2 integration test for the signed-in user's endpoints under /api/users/me.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShopperFixture shop;
+
+    /** Prevent Excel / demo seeders from running against the test H2 DB. */
+    @MockBean
+    private DataSeeder dataSeeder;
+
+    @MockBean
+    private DemoUserSeeder demoUserSeeder;
+
+    private String username;
+    private Long serumId;
+
+    @BeforeEach
+    void setUp() {
+        username = shop.newUser("profile").getUsername();
+        serumId = shop.newProduct("Profile Serum", 899.0, "Skincare", "Serum");
+        shop.refreshCatalog();
+    }
+
+    private String auth() {
+        return shop.bearer(username);
+    }
+
+    private MockHttpServletRequestBuilder checkout(int serums) {
+        return shop.checkout(username, ShopperFixture.checkoutJson(new ShopperFixture.Line(serumId, serums, 899.0)));
+    }
+
+    @Test
+    void orderStatsFollowCheckouts() throws Exception {
+        mockMvc.perform(get("/api/users/me/order-stats").header(HttpHeaders.AUTHORIZATION, auth()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderCount").value(0))
+                .andExpect(jsonPath("$.lastOrderAt").doesNotExist());
+
+        mockMvc.perform(checkout(1)).andExpect(status().isOk());
+        mockMvc.perform(checkout(2)).andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users/me/order-stats").header(HttpHeaders.AUTHORIZATION, auth()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderCount").value(2))
+                .andExpect(jsonPath("$.totalSpent").value(899.0 * 3))
+                .andExpect(jsonPath("$.lastOrderAt").isNotEmpty());
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.ecomm.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and error count for one endpoint. Recording is lock-free
+ * ({@link Recorder}); {@link #snapshot()} is called once, at the end of the run.
+ */
+final class EndpointStats {
+
+    // 1 µs .. 60 s at 3 significant digits
+    private final Recorder recorder = new Recorder(TimeUnit.SECONDS.toMicros(60), 3);
+    private final LongAdder errors = new LongAdder();
+    private final Histogram total = new Histogram(TimeUnit.SECONDS.toMicros(60), 3);
+
+    void record(long startNanos, boolean ok) {
+        long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+        recorder.recordValue(Math.min(micros, total.getHighestTrackableValue()));
+        if (!ok) {
+            errors.increment();
+        }
+    }
+
+    synchronized Histogram snapshot() {
+        total.add(recorder.getIntervalHistogram());
+        return total;
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.ecomm.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One shopper session: browse (listing, category + price sort, search, detail), hydrate the
+ * cart with the batch endpoint and, with probability {@code checkoutRatio}, check out.
+ * Every request is timed under a stable endpoint label.
+ */
+final class LoadScenario {
+
+    private static final String[] SEARCH_TERMS = {"palette", "serum", "lip", "mascara", "nude", "cream"};
+
+    private final HttpClient http;
+    private final ObjectMapper json = new ObjectMapper();
+    private final String baseUrl;
+    private final double checkoutRatio;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    LoadScenario(HttpClient http, String baseUrl, double checkoutRatio) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.checkoutRatio = checkoutRatio;
+    }
+
+    Map<String, EndpointStats> stats() {
+        return stats;
+    }
+
+    /** Signs the user up if needed and returns a bearer token. */
+    String login(String username, String password) throws Exception {
+        ObjectNode body = json.createObjectNode()
+                .put("username", username)
+                .put("password", password)
+                .put("email", username + "@load.test");
+        // 400 "Username already exists" is expected on re-runs
+        send("POST /api/auth/signup", post("/api/auth/signup", body, null).build(), true);
+        HttpResponse<String> res = send("POST /api/auth/login", post("/api/auth/login", body, null).build(), false);
+        return json.readTree(res.body()).path("token").asText();
+    }
+
+    void run(String token) throws Exception {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+
+        JsonNode first = getJson("GET /api/products?limit", "/api/products?limit=24&view=summary");
+        JsonNode items = first.path("items");
+        if (items.isEmpty()) {
+            return;
+        }
+        String category = items.get(rnd.nextInt(items.size())).path("mainCategory").asText();
+        getJson("GET /api/products?mainCategory&sort", "/api/products?limit=24&sort=price_asc&mainCategory="
+                + URLEncoder.encode(category, StandardCharsets.UTF_8));
+        getJson("GET /api/products?q", "/api/products?limit=24&q="
+                + SEARCH_TERMS[rnd.nextInt(SEARCH_TERMS.length)]);
+
+        List<Long> cart = new ArrayList<>();
+        int picks = 1 + rnd.nextInt(3);
+        for (int i = 0; i < picks; i++) {
+            long id = items.get(rnd.nextInt(items.size())).path("id").asLong();
+            getJson("GET /api/products/{id}", "/api/products/" + id);
+            if (!cart.contains(id)) {
+                cart.add(id);
+            }
+        }
+        StringBuilder ids = new StringBuilder();
+        cart.forEach(id -> ids.append(ids.length() == 0 ? "" : ",").append(id));
+        JsonNode hydrated = getJson("GET /api/products/batch", "/api/products/batch?view=summary&ids=" + ids);
+
+        if (rnd.nextDouble() < checkoutRatio) {
+            checkout(token, hydrated.path("products"));
+        }
+    }
+
+    // Prices come from the batch response, so the server-side price check passes
+    private void checkout(String token, JsonNode products) throws Exception {
+        ArrayNode lines = json.createArrayNode();
+        long totalMinor = 0;
+        for (JsonNode p : products) {
+            if (p.path("price").isNull()) {
+                continue;
+            }
+            int quantity = 1 + ThreadLocalRandom.current().nextInt(2);
+            lines.addObject()
+                    .put("productId", p.path("id").asLong())
+                    .put("quantity", quantity)
+                    .put("price", p.path("price").asDouble());
+            totalMinor += Math.round(p.path("price").asDouble() * 100) * quantity;
+        }
+        if (lines.isEmpty()) {
+            return;
+        }
+        ObjectNode body = json.createObjectNode()
+                .put("customerName", "Load Test")
+                .put("phoneNumber", "5550000000")
+                .put("addressLine", "Load Street 1")
+                .put("city", "Izmir")
+                .put("postalCode", "35000")
+                .put("cardholderName", "Load Test")
+                .put("cardNumber", "4111111111111111")
+                .put("expiryDate", "12/30")
+                .put("cvv", "123")
+                .put("amount", totalMinor / 100.0);
+        body.set("items", lines);
+        HttpRequest request = post("/api/checkout/complete", body, token)
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .build();
+        send("POST /api/checkout/complete", request, false);
+    }
+
+    private JsonNode getJson(String label, String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept-Encoding", "identity")
+                .GET()
+                .build();
+        HttpResponse<String> res = send(label, request, false);
+        return res.statusCode() == 200 ? json.readTree(res.body()) : json.createObjectNode();
+    }
+
+    private HttpRequest.Builder post(String path, JsonNode body, String token) throws Exception {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json.writeValueAsString(body)));
+        if (token != null) {
+            b.header("Authorization", "Bearer " + token);
+        }
+        return b;
+    }
+
+    private HttpResponse<String> send(String label, HttpRequest request, boolean clientErrorOk) throws Exception {
+        EndpointStats s = stats.computeIfAbsent(label, k -> new EndpointStats());
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> res = http.send(request, HttpResponse.BodyHandlers.ofString());
+            int code = res.statusCode();
+            s.record(start, code < 400 || (clientErrorOk && code < 500));
+            return res;
+        } catch (Exception e) {
+            s.record(start, false);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.ecomm.loadtest;
+
+import com.example.ecomm.EcommApplication;
+import com.example.ecomm.model.Product;
+import com.example.ecomm.repository.ProductRepository;
+import com.example.ecomm.service.CatalogSnapshotService;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load generator for browse → cart → checkout sessions.
+ *
+ * Run it through the {@code loadtest} Maven profile, either against a running backend
+ * (local Postgres) or against an embedded instance on the H2 test profile:
+ *
+ * <pre>
+ * mvn -Ploadtest test-compile exec:java -Dloadtest.args="--embedded --rate=50 --duration=60"
+ * mvn -Ploadtest test-compile exec:java -Dloadtest.args="--base-url=http://localhost:8080 --concurrency=64"
+ * </pre>
+ *
+ * Options (defaults in brackets): --base-url, --embedded, --users [20], --concurrency [32],
+ * --rate sessions/s, 0 = closed loop [0], --duration s [60], --warmup s [10],
+ * --checkout-ratio [0.3], --seed-products for an empty embedded catalog [200].
+ *
+ * With a rate, sessions start on a fixed schedule regardless of how slow the server is
+ * (open model), and "session start lag" shows how far the workers fell behind it.
+ */
+public final class LoadTestHarness {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parse(args);
+        int users = Integer.parseInt(opts.getOrDefault("users", "20"));
+        int concurrency = Integer.parseInt(opts.getOrDefault("concurrency", "32"));
+        double rate = Double.parseDouble(opts.getOrDefault("rate", "0"));
+        int duration = Integer.parseInt(opts.getOrDefault("duration", "60"));
+        int warmup = Integer.parseInt(opts.getOrDefault("warmup", "10"));
+        double checkoutRatio = Double.parseDouble(opts.getOrDefault("checkout-ratio", "0.3"));
+
+        ConfigurableApplicationContext app = null;
+        String baseUrl = opts.getOrDefault("base-url", "http://localhost:8080");
+        if (opts.containsKey("embedded")) {
+            app = startEmbedded(Integer.parseInt(opts.getOrDefault("seed-products", "200")));
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+        }
+
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(4, concurrency / 4)))
+                .build();
+        try {
+            List<String> tokens = new ArrayList<>();
+            LoadScenario login = new LoadScenario(http, baseUrl, checkoutRatio);
+            for (int i = 0; i < users; i++) {
+                tokens.add(login.login("load-user-" + i, "load-password-" + i));
+            }
+
+            System.out.printf("Target %s, %d users, concurrency %d, %s%n", baseUrl, users, concurrency,
+                    rate > 0 ? rate + " sessions/s" : "closed loop");
+            if (warmup > 0) {
+                System.out.printf("Warming up for %ds...%n", warmup);
+                drive(new LoadScenario(http, baseUrl, checkoutRatio), tokens, concurrency, rate, warmup);
+            }
+            LoadScenario measured = new LoadScenario(http, baseUrl, checkoutRatio);
+            System.out.printf("Measuring for %ds...%n", duration);
+            Histogram lag = drive(measured, tokens, concurrency, rate, duration);
+            report(measured, duration, rate > 0 ? lag : null);
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+            System.exit(0);
+        }
+    }
+
+    /** Runs sessions for {@code seconds}; returns the session start lag (open model only). */
+    private static Histogram drive(LoadScenario scenario, List<String> tokens, int concurrency, double rate,
+            int seconds) throws InterruptedException {
+        Histogram lag = new Histogram(TimeUnit.SECONDS.toMicros(600), 3);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        if (rate > 0) {
+            ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+            long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+            long origin = System.nanoTime();
+            AtomicLong tick = new AtomicLong();
+            ticker.scheduleAtFixedRate(() -> {
+                long intended = origin + tick.getAndIncrement() * intervalNanos;
+                workers.execute(() -> {
+                    synchronized (lag) {
+                        lag.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended)));
+                    }
+                    session(scenario, tokens);
+                });
+            }, 0, intervalNanos, TimeUnit.NANOSECONDS);
+            TimeUnit.NANOSECONDS.sleep(end - System.nanoTime());
+            ticker.shutdownNow();
+        } else {
+            for (int i = 0; i < concurrency; i++) {
+                workers.execute(() -> {
+                    while (System.nanoTime() < end) {
+                        session(scenario, tokens);
+                    }
+                });
+            }
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(60, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+        return lag;
+    }
+
+    private static void session(LoadScenario scenario, List<String> tokens) {
+        try {
+            scenario.run(tokens.get(ThreadLocalRandom.current().nextInt(tokens.size())));
+        } catch (Exception e) {
+            // Already counted as an error on the failing endpoint
+        }
+    }
+
+    private static void report(LoadScenario scenario, int seconds, Histogram lag) {
+        System.out.printf("%n%-36s %8s %7s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, EndpointStats> e : new TreeMap<>(scenario.stats()).entrySet()) {
+            Histogram h = e.getValue().snapshot();
+            System.out.printf("%-36s %8d %7d %8.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    e.getKey(), h.getTotalCount(), e.getValue().errors(), h.getTotalCount() / (double) seconds,
+                    ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)),
+                    ms(h.getValueAtPercentile(99)), ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()));
+        }
+        if (lag != null) {
+            System.out.printf("%nsession start lag: p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    ms(lag.getValueAtPercentile(50)), ms(lag.getValueAtPercentile(99)), ms(lag.getMaxValue()));
+        }
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+
+    // Embedded backend on the H2 test profile, with a synthetic catalog if the seeders left it empty
+    private static ConfigurableApplicationContext startEmbedded(int seedProducts) {
+        ConfigurableApplicationContext app = new SpringApplicationBuilder(EcommApplication.class)
+                .profiles("test")
+                .run("--server.port=0", "--spring.jpa.show-sql=false");
+        ProductRepository products = app.getBean(ProductRepository.class);
+        if (products.count() == 0) {
+            String[][] categories = {
+                    {"Makeup", "Eyeshadow"}, {"Makeup", "Lipstick"}, {"Makeup", "Mascara"},
+                    {"Skincare", "Serum"}, {"Skincare", "Cream"}};
+            String[] names = {"Nude Palette", "Velvet Lip", "Volume Mascara", "Glow Serum", "Night Cream"};
+            List<Product> batch = new ArrayList<>();
+            for (int i = 0; i < seedProducts; i++) {
+                int c = i % categories.length;
+                batch.add(new Product(names[c] + " " + i, "Synthetic load-test product " + i,
+                        99.0 + (i * 37 % 2000), "img.jpg", i % 10 == 0, "{}", categories[c][0], categories[c][1]));
+            }
+            products.saveAll(batch);
+        }
+        app.getBean(CatalogSnapshotService.class).refresh();
+        return app;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            for (String part : arg.trim().split("\\s+")) {
+                if (part.startsWith("--")) {
+                    int eq = part.indexOf('=');
+                    opts.put(eq < 0 ? part.substring(2) : part.substring(2, eq), eq < 0 ? "true" : part.substring(eq + 1));
+                }
+            }
+        }
+        return opts;
+    }
+
+    private LoadTestHarness() {
+    }
+}
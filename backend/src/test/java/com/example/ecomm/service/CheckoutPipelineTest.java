@@ -0,0 +1,131 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.DataSeeder;
+import com.example.ecomm.model.Order;
+import com.example.ecomm.model.OrderItem;
+import com.example.ecomm.model.Product;
+import com.example.ecomm.model.User;
+import com.example.ecomm.repository.OrderRepository;
+import com.example.ecomm.repository.ProductRepository;
+import com.example.ecomm.repository.UserRepository;
+import com.example.ecomm.seeder.DemoUserSeeder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Isolated H2 integration test for the sweep that fails PENDING orders whose payment job was
+ * lost (e.g. in a restart) and gives their stock back, unless another instance is paying it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CheckoutPipelineTest {
+
+    @Autowired
+    private CheckoutPipeline pipeline;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private DataSeeder dataSeeder;
+
+    @MockBean
+    private DemoUserSeeder demoUserSeeder;
+
+    private Order saveOrder(User user, Product product, String status, LocalDateTime createdAt) {
+        Order order = new Order(user, "Sweep", "555", "Addr", "Istanbul", "34000", 200.0);
+        order.setStatus(status);
+        order.setCreatedAt(createdAt);
+        order.addOrderItem(new OrderItem(order, product, 2, 100.0));
+        return orderRepository.save(order);
+    }
+
+    @Test
+    void stalePendingOrdersAreFailedAndRestocked() {
+        String name = "sweep-" + UUID.randomUUID();
+        User user = userRepository.save(new User(name, "unused-hash", name + "@example.com"));
+        Product product = new Product("Sweep Set", "", 100.0, "img.jpg", false, "{}", "Makeup", "Sets");
+        product.setStock(10);
+        product = productRepository.save(product);
+        // Stock as it was after these orders were reserved
+        stockLedger.reserve(Map.of(product.getId(), 6));
+
+        LocalDateTime old = LocalDateTime.now().minusHours(1);
+        Long lostId = saveOrder(user, product, "PENDING", old).getId();
+        Long recentId = saveOrder(user, product, "PENDING", LocalDateTime.now()).getId();
+        Long paidId = saveOrder(user, product, "PAID", old).getId();
+
+        pipeline.failStalePending();
+
+        assertThat(orderRepository.findById(lostId).orElseThrow().getStatus()).isEqualTo("FAILED");
+        assertThat(orderRepository.findById(recentId).orElseThrow().getStatus()).isEqualTo("PENDING");
+        assertThat(orderRepository.findById(paidId).orElseThrow().getStatus()).isEqualTo("PAID");
+        assertThat(stockLedger.available(product.getId())).isEqualTo(6);
+
+        // Already FAILED orders are not restocked twice
+        pipeline.failStalePending();
+        assertThat(stockLedger.available(product.getId())).isEqualTo(6);
+    }
+
+    @Test
+    void sweepWaitsForAPaymentInProgressElsewhere() throws Exception {
+        String name = "sweep-" + UUID.randomUUID();
+        User user = userRepository.save(new User(name, "unused-hash", name + "@example.com"));
+        Product product = new Product("Sweep Duo", "", 100.0, "img.jpg", false, "{}", "Makeup", "Sets");
+        product.setStock(10);
+        product = productRepository.save(product);
+        stockLedger.reserve(Map.of(product.getId(), 2));
+        Long orderId = saveOrder(user, product, "PENDING", LocalDateTime.now().minusHours(1)).getId();
+
+        // Another instance's worker pays the order and has not committed yet
+        CountDownLatch locked = new CountDownLatch(1);
+        CompletableFuture<Void> payment = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    Order order = orderRepository.lockById(orderId).orElseThrow();
+                    order.setStatus("PAID");
+                    orderRepository.flush();
+                    locked.countDown();
+                    sleep(300);
+                }));
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+        pipeline.failStalePending();
+        payment.get(10, TimeUnit.SECONDS);
+
+        assertThat(orderRepository.findById(orderId).orElseThrow().getStatus()).isEqualTo("PAID");
+        assertThat(stockLedger.available(product.getId())).isEqualTo(8);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
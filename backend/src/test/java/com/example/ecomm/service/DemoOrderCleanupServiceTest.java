@@ -3,9 +3,11 @@ package com.example.ecomm.service;
 import com.example.ecomm.DataSeeder;
 import com.example.ecomm.model.Order;
 import com.example.ecomm.model.OrderItem;
+import com.example.ecomm.model.Payment;
 import com.example.ecomm.model.User;
 import com.example.ecomm.repository.OrderItemRepository;
 import com.example.ecomm.repository.OrderRepository;
+import com.example.ecomm.repository.PaymentRepository;
 import com.example.ecomm.repository.UserRepository;
 import com.example.ecomm.seeder.DemoUserSeeder;
 import org.junit.jupiter.api.BeforeEach;
@@ -42,6 +44,12 @@ class DemoOrderCleanupServiceTest {
     @Autowired
     private OrderItemRepository orderItemRepository;
 
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private UserOrderStatsService userOrderStatsService;
+
     /** Prevent Excel / demo seeders from running against the test H2 DB. */
     @MockBean
     private DataSeeder dataSeeder;
@@ -49,6 +57,7 @@ class DemoOrderCleanupServiceTest {
     @MockBean
     private DemoUserSeeder demoUserSeeder;
 
+    private Long demoUserId;
     private Long demoOldOrderId;
     private Long demoRecentOrderId;
     private Long realUserOldOrderId;
@@ -58,12 +67,14 @@ class DemoOrderCleanupServiceTest {
 
     @BeforeEach
     void setUp() {
+        paymentRepository.deleteAll();
         orderItemRepository.deleteAll();
         orderRepository.deleteAll();
         userRepository.deleteAll();
 
         User demoUser = userRepository.save(new User("demo", "unused-hash", "demo@example.com"));
         User realUser = userRepository.save(new User("realuser", "unused-hash", "real@example.com"));
+        demoUserId = demoUser.getId();
 
         // (a) demo + 60 minutes ago → SHOULD be deleted
         Order demoOld = new Order(demoUser, "Demo Old", "555", "Addr A", "Istanbul", "34000", 100.0);
@@ -71,6 +82,7 @@ class DemoOrderCleanupServiceTest {
         demoOld = orderRepository.save(demoOld);
         demoOldOrderId = demoOld.getId();
         itemAId = saveItem(demoOld, "Item-A", 1, 100.0).getId();
+        paymentRepository.save(new Payment(demoOldOrderId, 100.0, "Demo", "1111"));
 
         // (b) demo + 10 minutes ago → must remain
         Order demoRecent = new Order(demoUser, "Demo Recent", "555", "Addr B", "Istanbul", "34000", 50.0);
@@ -85,6 +97,7 @@ class DemoOrderCleanupServiceTest {
         realOld = orderRepository.save(realOld);
         realUserOldOrderId = realOld.getId();
         itemCId = saveItem(realOld, "Item-C", 1, 75.0).getId();
+        paymentRepository.save(new Payment(realUserOldOrderId, 75.0, "Real", "2222"));
     }
 
     private OrderItem saveItem(Order order, String name, int qty, double price) {
@@ -97,6 +110,8 @@ class DemoOrderCleanupServiceTest {
     void cleanup_deletesOnlyExpiredDemoOrder_andCascadesItsItemsOnly() {
         assertThat(orderRepository.count()).isEqualTo(3);
         assertThat(orderItemRepository.count()).isEqualTo(3);
+        // No stats row yet: backfilled from the demo user's history (and cached)
+        assertThat(userOrderStatsService.get(demoUserId).getOrderCount()).isEqualTo(2);
 
         List<Long> deletedCandidates = cleanupService.cleanupExpiredDemoOrders();
 
@@ -130,6 +145,14 @@ class DemoOrderCleanupServiceTest {
                 .isPresent();
         assertThat(orderItemRepository.count()).isEqualTo(2);
 
+        // payments: only (a)'s payment removed
+        assertThat(paymentRepository.findByOrderId(demoOldOrderId)).isEmpty();
+        assertThat(paymentRepository.findByOrderId(realUserOldOrderId)).isPresent();
+
+        // Aggregates were recomputed in the cleanup transaction and the cached value dropped
+        assertThat(userOrderStatsService.get(demoUserId).getOrderCount()).isEqualTo(1);
+        assertThat(userOrderStatsService.get(demoUserId).getTotalSpent()).isEqualTo(50.0);
+
         Set<Long> remainingItemOrderIds = orderItemRepository.findAll().stream()
                 .map(item -> item.getOrder().getId())
                 .collect(Collectors.toSet());
@@ -0,0 +1,183 @@
+package com.example.ecomm.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit test for group commit batching and per-caller failure isolation, against a
+ * transaction manager that only counts commits and rollbacks, and against an H2 database.
+ */
+class GroupCommitWriterTest {
+
+    private static final class CountingTransactionManager extends AbstractPlatformTransactionManager {
+        final AtomicInteger commits = new AtomicInteger();
+        final AtomicInteger rollbacks = new AtomicInteger();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            commits.incrementAndGet();
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rollbacks.incrementAndGet();
+        }
+    }
+
+    private final CountingTransactionManager txManager = new CountingTransactionManager();
+    private final ExecutorService callers = Executors.newFixedThreadPool(16);
+    private GroupCommitWriter writer;
+
+    private GroupCommitWriter start(long windowMs) {
+        return start(new TransactionTemplate(txManager), windowMs);
+    }
+
+    private GroupCommitWriter start(TransactionTemplate transactionTemplate, long windowMs) {
+        writer = new GroupCommitWriter(transactionTemplate, true, windowMs, 64);
+        writer.start();
+        return writer;
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        callers.shutdownNow();
+        writer.stop();
+    }
+
+    @Test
+    void concurrentCallersShareCommits() throws Exception {
+        GroupCommitWriter w = start(50);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            int n = i;
+            results.add(callers.submit(() -> {
+                go.await();
+                return w.execute(() -> n);
+            }));
+        }
+        go.countDown();
+
+        for (int i = 0; i < 16; i++) {
+            assertThat(results.get(i).get()).isEqualTo(i);
+        }
+        assertThat(txManager.commits.get()).isLessThan(16);
+    }
+
+    @Test
+    void failingUnitOnlyFailsItsOwnCaller() throws Exception {
+        GroupCommitWriter w = start(50);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Integer> committed = Collections.synchronizedList(new ArrayList<>());
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            int n = i;
+            results.add(callers.submit(() -> {
+                go.await();
+                return w.execute(() -> {
+                    if (n == 3) {
+                        throw new ResponseStatusException(HttpStatus.CONFLICT, "out of stock");
+                    }
+                    committed.add(n);
+                    return n;
+                });
+            }));
+        }
+        go.countDown();
+
+        for (int i = 0; i < 8; i++) {
+            Future<Integer> result = results.get(i);
+            if (i == 3) {
+                assertThatThrownBy(result::get).hasCauseInstanceOf(ResponseStatusException.class);
+            } else {
+                assertThat(result.get()).isEqualTo(i);
+            }
+        }
+        assertThat(txManager.commits.get()).isPositive();
+    }
+
+    @Test
+    void constraintViolationDoesNotFailOtherUnitsOfItsRound() throws Exception {
+        // A new connection per transaction, so a connection identifies its transaction
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(
+                new org.h2.Driver(), "jdbc:h2:mem:groupcommit;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP TABLE IF EXISTS gc_order");
+        jdbc.execute("CREATE TABLE gc_order (ref VARCHAR(20) PRIMARY KEY)");
+        jdbc.update("INSERT INTO gc_order (ref) VALUES ('taken')");
+
+        // H2 keeps a transaction usable after a failed statement; PostgreSQL refuses everything after it
+        Set<Connection> aborted = ConcurrentHashMap.newKeySet();
+        GroupCommitWriter w = start(new TransactionTemplate(new DataSourceTransactionManager(dataSource)), 50);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String ref = i == 3 ? "taken" : "order-" + i;
+            results.add(callers.submit(() -> {
+                go.await();
+                return w.execute(() -> {
+                    Connection connection = DataSourceUtils.getConnection(dataSource);
+                    if (aborted.contains(connection)) {
+                        throw new IllegalStateException("current transaction is aborted");
+                    }
+                    try {
+                        jdbc.update("INSERT INTO gc_order (ref) VALUES (?)", ref);
+                    } catch (DataAccessException e) {
+                        aborted.add(connection);
+                        throw e;
+                    }
+                    return ref;
+                });
+            }));
+        }
+        go.countDown();
+
+        for (int i = 0; i < 8; i++) {
+            Future<String> result = results.get(i);
+            if (i == 3) {
+                assertThatThrownBy(result::get).hasCauseInstanceOf(DuplicateKeyException.class);
+            } else {
+                assertThat(result.get()).isEqualTo("order-" + i);
+            }
+        }
+        assertThat(jdbc.queryForList("SELECT ref FROM gc_order", String.class))
+                .containsExactlyInAnyOrder("taken", "order-0", "order-1", "order-2",
+                        "order-4", "order-5", "order-6", "order-7");
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.DataSeeder;
+import com.example.ecomm.model.IdempotencyRecord;
+import com.example.ecomm.repository.IdempotencyRecordRepository;
+import com.example.ecomm.seeder.DemoUserSeeder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * H2 integration test for idempotency records written by two instances at once.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotencyStoreTest {
+
+    @Autowired
+    private IdempotencyStore store;
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private DataSeeder dataSeeder;
+
+    @MockBean
+    private DemoUserSeeder demoUserSeeder;
+
+    @Test
+    void insertOfAKeyCommittedSinceTheLookupFailsOnThePrimaryKey() {
+        String key = "race-" + UUID.randomUUID();
+        assertThat(store.find(7L, key)).isEmpty();
+
+        // Another instance commits the same key between our lookup and our insert
+        repository.save(new IdempotencyRecord(7L, key, "hash", "{\"orderId\":1}"));
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status ->
+                store.save(new IdempotencyRecord(7L, key, "hash", "{\"orderId\":2}"))))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(repository.findById(IdempotencyRecord.idOf(7L, key)).orElseThrow().getResponseBody())
+                .isEqualTo("{\"orderId\":1}");
+    }
+}
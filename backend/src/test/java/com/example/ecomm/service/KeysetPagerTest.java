@@ -0,0 +1,65 @@
+package com.example.ecomm.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pure unit test for keyset pagination and cursor round-tripping.
+ */
+class KeysetPagerTest {
+
+    /** Row = {sortKey, id}. */
+    private static List<double[]> rows(double[]... rows) {
+        return List.of(rows);
+    }
+
+    private static List<Long> walk(List<double[]> ordered, boolean descending, int limit) {
+        List<Long> seen = new ArrayList<>();
+        PageCursor cursor = null;
+        do {
+            KeysetPager.Slice<double[]> slice = KeysetPager.page(
+                    ordered, r -> r[0], descending, r -> (long) r[1], cursor, limit);
+            slice.getItems().forEach(r -> seen.add((long) r[1]));
+            cursor = PageCursor.decode(slice.getNextCursor());
+        } while (cursor != null);
+        return seen;
+    }
+
+    @Test
+    void walksEveryRowExactlyOnce_withTiesOnTheSortKey() {
+        // score desc, id asc — three rows share score 2.5
+        List<double[]> ordered = rows(
+                new double[]{9.0, 4}, new double[]{2.5, 1}, new double[]{2.5, 3},
+                new double[]{2.5, 7}, new double[]{0.1, 2});
+
+        assertThat(walk(ordered, true, 2)).containsExactly(4L, 1L, 3L, 7L, 2L);
+        assertThat(walk(ordered, true, 1)).containsExactly(4L, 1L, 3L, 7L, 2L);
+    }
+
+    @Test
+    void cursorSeeksPastRemovedRows() {
+        List<double[]> before = rows(new double[]{1, 1}, new double[]{2, 2}, new double[]{3, 3}, new double[]{4, 4});
+        KeysetPager.Slice<double[]> first = KeysetPager.page(before, r -> r[0], false, r -> (long) r[1], null, 2);
+
+        // Row 2 (the cursor row) and row 3 disappear between requests
+        List<double[]> after = rows(new double[]{1, 1}, new double[]{4, 4});
+        KeysetPager.Slice<double[]> second = KeysetPager.page(
+                after, r -> r[0], false, r -> (long) r[1], PageCursor.decode(first.getNextCursor()), 2);
+
+        assertThat(second.getItems()).extracting(r -> (long) r[1]).containsExactly(4L);
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void rejectsForgedCursorsAndClampsLimits() {
+        assertThatThrownBy(() -> PageCursor.decode("not-a-cursor")).hasMessageContaining("Invalid cursor");
+        assertThat(KeysetPager.clampLimit(null)).isEqualTo(KeysetPager.DEFAULT_LIMIT);
+        assertThat(KeysetPager.clampLimit(0)).isEqualTo(1);
+        assertThat(KeysetPager.clampLimit(10_000)).isEqualTo(KeysetPager.MAX_LIMIT);
+    }
+}
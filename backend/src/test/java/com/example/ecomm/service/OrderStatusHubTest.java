@@ -0,0 +1,91 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.model.Order;
+import com.example.ecomm.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit test for the order status fan-out with clients that stop reading: their blocked
+ * writes must not delay other subscribers, and they are closed after the send timeout.
+ */
+class OrderStatusHubTest {
+
+    private static final long STALLED_USER = 1L;
+    private static final long READING_USER = 2L;
+
+    // Released at the end; until then every write to a stalled client blocks, like a full TCP window
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private final BlockingQueue<SseEmitter.SseEventBuilder> delivered = new LinkedBlockingQueue<>();
+    private long nextUser = STALLED_USER;
+
+    private final OrderStatusHub hub = new OrderStatusHub(60_000, 4, 2, 200) {
+        @Override
+        SseEmitter newEmitter(long timeoutMs) {
+            boolean stalled = nextUser == STALLED_USER;
+            return new SseEmitter(timeoutMs) {
+                @Override
+                public void send(SseEventBuilder builder) {
+                    if (stalled) {
+                        try {
+                            unblock.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    } else {
+                        delivered.add(builder);
+                    }
+                }
+            };
+        }
+    };
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        unblock.countDown();
+        hub.stop();
+    }
+
+    private static Order order(long userId, long orderId, String status) {
+        User user = new User();
+        user.setId(userId);
+        Order order = new Order();
+        order.setId(orderId);
+        order.setUser(user);
+        order.setStatus(status);
+        return order;
+    }
+
+    @Test
+    void stalledSubscribersDoNotHoldUpOthersAndAreClosed() throws Exception {
+        hub.start();
+        // More stalled connections than core sender threads, each blocked in its first write
+        hub.subscribe(STALLED_USER);
+        hub.subscribe(STALLED_USER);
+        hub.subscribe(STALLED_USER);
+        nextUser = READING_USER;
+        hub.subscribe(READING_USER);
+
+        hub.publishAfterCommit(order(READING_USER, 7L, "PAID"));
+
+        // The "connected" comment, then the status event
+        assertThat(delivered.poll(2, TimeUnit.SECONDS)).isNotNull();
+        assertThat(delivered.poll(2, TimeUnit.SECONDS)).isNotNull();
+        assertThat(hub.connectionCount()).isEqualTo(4);
+
+        Thread.sleep(300);
+        hub.heartbeat();
+
+        // Writes blocked past the send timeout closed their connections; the reader stays
+        assertThat(hub.connectionCount()).isEqualTo(1);
+        assertThat(delivered.poll(2, TimeUnit.SECONDS)).isNotNull();
+    }
+}
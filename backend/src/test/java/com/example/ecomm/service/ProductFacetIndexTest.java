@@ -0,0 +1,61 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pure unit test for attribute bitmap filtering and disjunctive facet counts.
+ */
+class ProductFacetIndexTest {
+
+    private static Product product(long id, Map<String, Object> attributes) {
+        Product p = new Product("P" + id, "", 10.0, "", false, null, "Makeup", "Eyeshadow");
+        p.setId(id);
+        p.setAttributes(attributes);
+        return p;
+    }
+
+    private static final List<Product> CATALOG = List.of(
+            product(1, Map.of("skin_type", "oily", "palette_type", "Nude")),
+            product(2, Map.of("skin_type", "Oily", "palette_type", "Midi")),
+            product(3, Map.of("skin_type", "dry", "palette_type", "Nude")),
+            product(4, Map.of("weight_g", 14)),
+            product(5, null));
+
+    private static BitSet all() {
+        BitSet bits = new BitSet();
+        bits.set(0, CATALOG.size());
+        return bits;
+    }
+
+    @Test
+    void filtersAreOrWithinAnAttributeAndAndAcrossAttributes() {
+        ProductFacetIndex index = ProductFacetIndex.build(CATALOG);
+
+        assertThat(index.matching(Map.of("skin_type", List.of("OILY"))).stream().toArray()).containsExactly(0, 1);
+        assertThat(index.matching(Map.of("palette_type", List.of("nude", "midi"))).stream().toArray())
+                .containsExactly(0, 1, 2);
+        assertThat(index.matching(Map.of("skin_type", List.of("oily"), "palette_type", List.of("Nude")))
+                .stream().toArray()).containsExactly(0);
+        assertThat(index.matching(Map.of("weight_g", List.of("14"))).stream().toArray()).containsExactly(3);
+    }
+
+    @Test
+    void facetCountsIgnoreTheirOwnAttributeFilter() {
+        ProductFacetIndex index = ProductFacetIndex.build(CATALOG);
+
+        Map<String, Map<String, Integer>> counts = index.counts(all(), Map.of("skin_type", List.of("oily")));
+
+        // skin_type still shows every alternative; palette_type is narrowed to the oily products
+        assertThat(counts.get("skin_type")).containsEntry("oily", 2).containsEntry("dry", 1);
+        assertThat(counts.get("palette_type")).containsOnly(Map.entry("Nude", 1), Map.entry("Midi", 1));
+        assertThat(index.hasAttribute("Skin_Type")).isTrue();
+        assertThat(index.hasAttribute("limit")).isFalse();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pure unit test for the in-memory product search index (no Spring context, no database).
+ */
+class ProductSearchIndexTest {
+
+    private static Product product(long id, String name, String description, Map<String, Object> attributes) {
+        Product p = new Product(name, description, 100.0, "img.jpg", false, null, "Makeup", "Eyeshadow");
+        p.setId(id);
+        p.setAttributes(attributes);
+        return p;
+    }
+
+    private static final List<Product> CATALOG = List.of(
+            product(1, "Huda Beauty Icy Nude Eyeshadow Palette", "Cool-toned nude shades", Map.of("skin_type", "all")),
+            product(2, "Natasha Denona Eye Sculpt Palette", "Matte and shimmer tones for nude looks", Map.of()),
+            product(3, "Hydrating Face Serum", "Lightweight serum for oily skin", Map.of("skin_type", "Oily")),
+            product(4, "Göz Kalemi Eyeliner", "Long wear liner", null));
+
+    private static List<Long> ids(List<ProductSearchIndex.Hit> hits) {
+        return hits.stream().map(h -> h.getProduct().getId()).toList();
+    }
+
+    @Test
+    void prefixMatchesAndRanksNameHitsAboveDescriptionHits() {
+        ProductSearchIndex index = ProductSearchIndex.build(CATALOG, null);
+
+        // "nud" is a prefix of "nude": product 1 has it in the name, product 2 only in the description
+        assertThat(ids(index.search("nud"))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void allQueryTermsMustMatch() {
+        ProductSearchIndex index = ProductSearchIndex.build(CATALOG, null);
+
+        assertThat(ids(index.search("palette nude"))).containsExactly(1L, 2L);
+        assertThat(ids(index.search("palette serum"))).isEmpty();
+    }
+
+    @Test
+    void attributeValuesAndDiacriticsAreSearchable() {
+        ProductSearchIndex index = ProductSearchIndex.build(CATALOG, null);
+
+        assertThat(ids(index.search("OILY"))).containsExactly(3L);
+        assertThat(ids(index.search("goz"))).containsExactly(4L);
+        assertThat(index.search("  !! ")).isEmpty();
+    }
+
+    @Test
+    void rebuildPicksUpChangedProducts() {
+        ProductSearchIndex first = ProductSearchIndex.build(CATALOG, null);
+
+        Product renamed = product(3, "Glow Drops", "Lightweight serum for oily skin", Map.of("skin_type", "Oily"));
+        ProductSearchIndex second = ProductSearchIndex.build(List.of(CATALOG.get(0), CATALOG.get(1), renamed), first);
+
+        assertThat(ids(second.search("glow"))).containsExactly(3L);
+        assertThat(ids(second.search("hydrating"))).isEmpty();
+        assertThat(ids(second.search("nude"))).containsExactly(1L, 2L);
+    }
+}
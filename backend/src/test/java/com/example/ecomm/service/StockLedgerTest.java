@@ -0,0 +1,95 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.DataSeeder;
+import com.example.ecomm.model.Product;
+import com.example.ecomm.repository.ProductRepository;
+import com.example.ecomm.seeder.DemoUserSeeder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * H2 integration test for stock changed outside the ledger and for sales that were not yet
+ * written to products.stock when the process stopped.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StockLedgerTest {
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private DataSeeder dataSeeder;
+
+    @MockBean
+    private DemoUserSeeder demoUserSeeder;
+
+    private Long product(int stock) {
+        Product product = new Product("Ledger Set", "", 100.0, "img.jpg", false, "{}", "Makeup", "Sets");
+        product.setStock(stock);
+        return productRepository.save(product).getId();
+    }
+
+    private int stockInDatabase(Long id) {
+        return productRepository.findById(id).orElseThrow().getStock();
+    }
+
+    @Test
+    void restockWrittenToTheDatabaseIsPickedUpByAReload() {
+        Long id = product(1);
+        transactionTemplate.executeWithoutResult(status -> stockLedger.reserve(Map.of(id, 1)));
+        assertThat(stockLedger.available(id)).isZero();
+
+        // An admin restock straight in the table, before the sale above was flushed
+        jdbcTemplate.update("UPDATE products SET stock = stock + 5 WHERE id = ?", id);
+        stockLedger.reload(List.of(id));
+        assertThat(stockLedger.available(id)).isEqualTo(5);
+
+        stockLedger.flush();
+        assertThat(stockInDatabase(id)).isEqualTo(5);
+        stockLedger.reloadAll();
+        assertThat(stockLedger.available(id)).isEqualTo(5);
+    }
+
+    @Test
+    void committedSalesSurviveARestartBeforeTheFlush() {
+        Long id = product(10);
+        transactionTemplate.executeWithoutResult(status -> stockLedger.reserve(Map.of(id, 3)));
+        // Rolled back: neither the units nor the movement stay taken
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                stockLedger.reserve(Map.of(id, 4));
+                throw new IllegalStateException("checkout failed");
+            });
+        } catch (IllegalStateException expected) {
+            // The reservation was undone
+        }
+        assertThat(stockLedger.available(id)).isEqualTo(7);
+
+        // A new process (empty counters) sees the unflushed sale and writes it
+        StockLedger restarted = new StockLedger(jdbcTemplate, transactionTemplate);
+        assertThat(restarted.available(id)).isEqualTo(7);
+        restarted.flush();
+        assertThat(stockInDatabase(id)).isEqualTo(7);
+        assertThat(restarted.available(id)).isEqualTo(7);
+    }
+}
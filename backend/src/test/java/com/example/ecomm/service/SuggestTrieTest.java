@@ -0,0 +1,67 @@
+package com.example.ecomm.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pure unit test for prefix lookups on the path-compressed suggestion trie.
+ */
+class SuggestTrieTest {
+
+    private static final SuggestTrie.Suggestion ICY =
+            new SuggestTrie.Suggestion("Icy Nude Eyeshadow Palette", "product", 1L, true, 0);
+    private static final SuggestTrie.Suggestion MIDI =
+            new SuggestTrie.Suggestion("Midi Eyeshadow Palette", "product", 2L, false, 5);
+    private static final SuggestTrie.Suggestion EYELINER =
+            new SuggestTrie.Suggestion("Eyeliner", "product", 3L, false, 9);
+
+    // Keys as ProductSuggestService registers them: one per word start
+    private static final SuggestTrie TRIE = new SuggestTrie.Builder()
+            .add("icy nude eyeshadow palette", ICY)
+            .add("nude eyeshadow palette", ICY)
+            .add("eyeshadow palette", ICY)
+            .add("palette", ICY)
+            .add("midi eyeshadow palette", MIDI)
+            .add("eyeshadow palette", MIDI)
+            .add("palette", MIDI)
+            .add("eyeliner", EYELINER)
+            .build();
+
+    private static List<String> texts(String prefix) {
+        return TRIE.lookup(prefix, SuggestTrie.MAX_RESULTS).stream().map(SuggestTrie.Suggestion::getText).toList();
+    }
+
+    @Test
+    void prefixesMayEndAtABranchOrInsideAnEdge() {
+        assertThat(texts("eye")).containsExactly("Icy Nude Eyeshadow Palette", "Eyeliner", "Midi Eyeshadow Palette");
+        assertThat(texts("eyesh")).containsExactly("Icy Nude Eyeshadow Palette", "Midi Eyeshadow Palette");
+        assertThat(texts("pal")).containsExactly("Icy Nude Eyeshadow Palette", "Midi Eyeshadow Palette");
+        assertThat(texts("midi eyeshadow palette")).containsExactly("Midi Eyeshadow Palette");
+        assertThat(TRIE.lookup("eye", 1)).containsExactly(ICY);
+    }
+
+    @Test
+    void prefixesThatLeaveAnEdgeFindNothing() {
+        assertThat(texts("eyeshadox")).isEmpty();
+        assertThat(texts("palettes")).isEmpty();
+        assertThat(texts("x")).isEmpty();
+        assertThat(texts("")).isEmpty();
+    }
+
+    @Test
+    void resultsCannotChangeTheTrie() {
+        List<SuggestTrie.Suggestion> first = TRIE.lookup("eye", SuggestTrie.MAX_RESULTS);
+        assertThatThrownBy(() -> first.set(0, MIDI)).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(TRIE.lookup("eye", 1)).containsExactly(ICY);
+    }
+
+    @Test
+    void singleChildChainsShareOneNode() {
+        // Root, "eye" branch, and one node per key end: "liner", "shadow palette", "icy ...", "midi ...", "nude ...", "palette"
+        assertThat(TRIE.nodeCount()).isEqualTo(8);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.ecomm.service;
+
+import com.example.ecomm.DataSeeder;
+import com.example.ecomm.dto.OrderStatsDTO;
+import com.example.ecomm.model.Order;
+import com.example.ecomm.model.User;
+import com.example.ecomm.repository.OrderItemRepository;
+import com.example.ecomm.repository.OrderRepository;
+import com.example.ecomm.repository.PaymentRepository;
+import com.example.ecomm.repository.UserOrderStatsRepository;
+import com.example.ecomm.repository.UserRepository;
+import com.example.ecomm.seeder.DemoUserSeeder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Isolated H2 integration test for the user_order_stats read model: backfill, increments,
+ * recomputes, and a recompute racing an order that has not committed yet.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserOrderStatsServiceTest {
+
+    @Autowired
+    private UserOrderStatsService statsService;
+
+    @Autowired
+    private UserOrderStatsRepository statsRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private DataSeeder dataSeeder;
+
+    @MockBean
+    private DemoUserSeeder demoUserSeeder;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        paymentRepository.deleteAll();
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        statsRepository.deleteAll();
+        userRepository.deleteAll();
+        user = userRepository.save(new User("stats-user", "unused-hash", "stats@example.com"));
+    }
+
+    private Order saveOrder(double amount, String status) {
+        Order order = new Order(user, "Stats User", "555", "Addr", "Istanbul", "34000", amount);
+        order.setStatus(status);
+        order.setCreatedAt(LocalDateTime.now());
+        return orderRepository.saveAndFlush(order);
+    }
+
+    @Test
+    void backfillsFromHistoryAndCountsNewOrders() {
+        transactionTemplate.executeWithoutResult(status -> {
+            saveOrder(40.0, "PAID");
+            saveOrder(99.0, "FAILED");
+        });
+
+        OrderStatsDTO backfilled = statsService.get(user.getId());
+        assertThat(backfilled.getOrderCount()).isEqualTo(1);
+        assertThat(backfilled.getTotalSpent()).isEqualTo(40.0);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Order order = saveOrder(10.0, "PAID");
+            statsService.recordOrder(user.getId(), order.getAmount(), order.getCreatedAt());
+        });
+
+        OrderStatsDTO updated = statsService.get(user.getId());
+        assertThat(updated.getOrderCount()).isEqualTo(2);
+        assertThat(updated.getTotalSpent()).isEqualTo(50.0);
+    }
+
+    @Test
+    void recomputeWaitsForAnOrderBeingPlaced() throws Exception {
+        Order[] failing = new Order[1];
+        transactionTemplate.executeWithoutResult(status -> {
+            saveOrder(40.0, "PAID");
+            failing[0] = saveOrder(25.0, "PENDING");
+        });
+        statsService.get(user.getId());
+
+        CountDownLatch recorded = new CountDownLatch(1);
+        CompletableFuture<Void> checkout = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    Order order = saveOrder(10.0, "PAID");
+                    statsService.recordOrder(user.getId(), order.getAmount(), order.getCreatedAt());
+                    recorded.countDown();
+                    // Stay uncommitted while the recompute below starts
+                    sleep(300);
+                }));
+        assertThat(recorded.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Like CheckoutPipeline.markFailed: the pending order fails and the stats are recomputed
+        transactionTemplate.executeWithoutResult(status -> {
+            Order order = orderRepository.findById(failing[0].getId()).orElseThrow();
+            order.setStatus("FAILED");
+            orderRepository.flush();
+            statsService.refresh(user.getId());
+        });
+        checkout.get(10, TimeUnit.SECONDS);
+
+        assertThat(statsRepository.findById(user.getId())).get().satisfies(stats -> {
+            assertThat(stats.getOrderCount()).isEqualTo(2);
+            assertThat(stats.getTotalSpent()).isEqualTo(50.0);
+        });
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+-- Converts items_order and order_item into tables range-partitioned by created_at, one partition per month.
+--
+-- Run once with psql, in a maintenance window, with the application stopped (PostgreSQL 12+).
+-- Everything happens in one transaction; the row counts are checked before the old tables are dropped.
+-- Afterwards set orders.partitioning.enabled=true so OrderPartitionMaintenance keeps creating
+-- partitions ahead of time (and, if enabled, archives old ones).
+--
+-- Notes
+--  * created_at becomes NOT NULL. Legacy rows without it are stamped with the migration time.
+--  * Primary keys become (id, created_at): PostgreSQL requires the partition key in every unique
+--    constraint. Ids still come from items_order_seq / order_item_seq and stay unique.
+--  * order_item references items_order through (order_id, created_at). Foreign key names are kept,
+--    so Hibernate's ddl-auto=update recognizes them and does not try to add its own again.
+--  * Rows outside every monthly range land in the *_default partitions.
+
+BEGIN;
+
+-- 1. The partition key must be set everywhere
+UPDATE items_order SET created_at = now() WHERE created_at IS NULL;
+UPDATE order_item i SET created_at = o.created_at
+FROM items_order o
+WHERE i.order_id = o.id AND (i.created_at IS NULL OR i.created_at <> o.created_at);
+
+-- 2. Remember the foreign keys (name and definition) before the old tables go away
+CREATE TEMP TABLE saved_fks ON COMMIT DROP AS
+SELECT c.conrelid::regclass::text AS table_name,
+       c.conname AS name,
+       pg_get_constraintdef(c.oid) AS definition,
+       c.confrelid = 'items_order'::regclass AS references_orders
+FROM pg_constraint c
+WHERE c.contype = 'f'
+  AND c.conrelid IN ('items_order'::regclass, 'order_item'::regclass);
+
+ALTER TABLE order_item RENAME TO order_item_unpartitioned;
+ALTER TABLE items_order RENAME TO items_order_unpartitioned;
+
+-- 3. Partitioned parents with the same columns (no defaults: ids come from the Hibernate sequences)
+CREATE TABLE items_order (LIKE items_order_unpartitioned) PARTITION BY RANGE (created_at);
+ALTER TABLE items_order ALTER COLUMN created_at SET NOT NULL;
+ALTER TABLE items_order ADD PRIMARY KEY (id, created_at);
+
+CREATE TABLE order_item (LIKE order_item_unpartitioned) PARTITION BY RANGE (created_at);
+ALTER TABLE order_item ALTER COLUMN created_at SET NOT NULL;
+ALTER TABLE order_item ADD PRIMARY KEY (id, created_at);
+
+-- 4. Monthly partitions from the oldest order up to three months ahead, plus a default partition
+DO $$
+DECLARE
+    first_month date := date_trunc('month', COALESCE((SELECT min(created_at) FROM items_order_unpartitioned), now()));
+    last_month  date := date_trunc('month', now()) + interval '3 months';
+    m           date;
+    t           text;
+BEGIN
+    m := first_month;
+    WHILE m <= last_month LOOP
+        FOREACH t IN ARRAY ARRAY['items_order', 'order_item'] LOOP
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           t || '_p' || to_char(m, 'YYYYMM'), t, m, (m + interval '1 month')::date);
+        END LOOP;
+        m := (m + interval '1 month')::date;
+    END LOOP;
+END $$;
+
+CREATE TABLE items_order_default PARTITION OF items_order DEFAULT;
+CREATE TABLE order_item_default PARTITION OF order_item DEFAULT;
+
+-- 5. Copy the rows and check nothing was lost
+INSERT INTO items_order SELECT * FROM items_order_unpartitioned;
+INSERT INTO order_item SELECT * FROM order_item_unpartitioned;
+
+DO $$
+BEGIN
+    IF (SELECT count(*) FROM items_order) <> (SELECT count(*) FROM items_order_unpartitioned)
+       OR (SELECT count(*) FROM order_item) <> (SELECT count(*) FROM order_item_unpartitioned) THEN
+        RAISE EXCEPTION 'Row counts differ after copying; nothing was changed';
+    END IF;
+END $$;
+
+DROP TABLE order_item_unpartitioned;
+DROP TABLE items_order_unpartitioned;
+
+-- 6. Indexes (created on the parent, so every partition gets them) and foreign keys under their old names
+CREATE INDEX idx_items_order_user_created ON items_order (user_id, created_at);
+CREATE INDEX idx_items_order_status_created ON items_order (status, created_at);
+CREATE INDEX idx_order_item_order ON order_item (order_id);
+
+DO $$
+DECLARE
+    fk record;
+BEGIN
+    FOR fk IN SELECT * FROM saved_fks LOOP
+        IF fk.references_orders THEN
+            EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I FOREIGN KEY (order_id, created_at) '
+                           'REFERENCES items_order (id, created_at)', fk.table_name, fk.name);
+        ELSE
+            EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I %s', fk.table_name, fk.name, fk.definition);
+        END IF;
+    END LOOP;
+END $$;
+
+COMMIT;
+
+ANALYZE items_order;
+ANALYZE order_item;
@@ -1,4 +1,4 @@
-import React, { useEffect, useState } from 'react';
+import React, { useEffect, useRef, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
 import {
     Box,
@@ -26,6 +26,9 @@ function MyOrders() {
 
     // Orders state
     const [orders, setOrders] = useState([]);
+    // Latest orders for the stream handler, which is set up once per login
+    const ordersRef = useRef(orders);
+    ordersRef.current = orders;
 
     // UI states
     const [loading, setLoading] = useState(true);
@@ -40,6 +43,77 @@ function MyOrders() {
         }
     }, [isAuthenticated]);
 
+    // Live status updates over Server-Sent Events instead of re-polling the order list.
+    // fetch() is used rather than EventSource because the stream needs the Authorization header.
+    useEffect(() => {
+        if (!isAuthenticated) {
+            return undefined;
+        }
+        const controller = new AbortController();
+        let retryTimer;
+
+        const connect = async () => {
+            try {
+                const response = await fetch(`${API_URL}/stream`, {
+                    headers: {
+                        Accept: 'text/event-stream',
+                        Authorization: axios.defaults.headers.common['Authorization']
+                    },
+                    signal: controller.signal
+                });
+                if (!response.ok || !response.body) {
+                    return;
+                }
+                const reader = response.body.getReader();
+                const decoder = new TextDecoder();
+                let buffer = '';
+                while (true) {
+                    const { value, done } = await reader.read();
+                    if (done) {
+                        break;
+                    }
+                    buffer += decoder.decode(value, { stream: true });
+                    // Events are separated by a blank line; only "data:" lines carry a payload
+                    const events = buffer.split('\n\n');
+                    buffer = events.pop();
+                    events.forEach((event) => {
+                        const data = event.split('\n')
+                            .filter((line) => line.startsWith('data:'))
+                            .map((line) => line.slice(5))
+                            .join('\n');
+                        if (!data) {
+                            return;
+                        }
+                        const { orderId, status } = JSON.parse(data);
+                        if (!ordersRef.current.some((o) => o.id === orderId)) {
+                            // A new order (e.g. placed in another tab): reload the list once
+                            fetchOrders();
+                            return;
+                        }
+                        setOrders((prev) => prev.map((o) => (o.id === orderId ? { ...o, status } : o)));
+                    });
+                }
+            } catch (err) {
+                if (!controller.signal.aborted) {
+                    console.error('Order status stream error:', err);
+                }
+            }
+            // The server closed the stream (timeout, restart or slow reader): reconnect and resync
+            if (!controller.signal.aborted) {
+                retryTimer = setTimeout(() => {
+                    fetchOrders();
+                    connect();
+                }, 5000);
+            }
+        };
+
+        connect();
+        return () => {
+            controller.abort();
+            clearTimeout(retryTimer);
+        };
+    }, [isAuthenticated]);
+
     // Fetch user's orders from backend
     const fetchOrders = async () => {
         setLoading(true);